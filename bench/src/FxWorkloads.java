@@ -0,0 +1,499 @@
+import bench.FxThread;
+import bench.Workload;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class holds the workloads of the benchmarks that need JavaFX, measured by bench.FxBenchmarks.
+ * Every workload is created on the JavaFX application thread with the scale of the game, and its run method is the measured operation.
+ * The operations that build or render a scene go back to the JavaFX application thread, the images are decoded and the hit tests
+ * run on the thread of the benchmark, like the asset loader and the shots do. The hand-over to the JavaFX thread is measured too,
+ * it is small next to the operations that need it.
+ */
+public class FxWorkloads {
+    private FxWorkloads() {
+    }
+
+    /**
+     * This method creates the level screen of a level specification with the first background and foreground.
+     * @param spec the specification of the level
+     * @param scale the scale of the game
+     * @return the level screen, with its animation stopped
+     */
+    static LevelScreen createLevelScreen(LevelSpec spec, double scale) {
+        Image background = SpriteCache.getImage("background/1.png", 1.0);
+        BackgroundImage backgroundImage = new BackgroundImage(background, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(background.getWidth() * scale, background.getHeight() * scale, false, false, false, false));
+        Image foreground = SpriteCache.getImage("foreground/1.png", scale);
+        LevelScreen levelScreen = new LevelScreen(new StackPane(), backgroundImage, foreground, scale, spec, false);
+        levelScreen.stopAnimation();
+        return levelScreen;
+    }
+
+    /**
+     * The hit test of the ducks of a level with three ducks, for a shot that hits the last duck.
+     */
+    public static class HitTestHit implements Workload {
+        private final ArrayList<Duck> ducks;
+        private final double x;
+        private final double y;
+
+        public HitTestHit(double scale) {
+            this(scale, true);
+        }
+
+        HitTestHit(double scale, boolean hit) {
+            ducks = createLevelScreen(LevelSpec.forLevel(6), scale).getDuckObjects();
+            DuckModel target = ducks.get(ducks.size() - 1).getModel();
+            x = hit ? target.getX() + target.getWidth() / 2 : 1;
+            y = hit ? target.getY() + target.getHeight() / 2 : 1;
+        }
+
+        @Override
+        public Object run() {
+            int hits = 0;
+            for (int i = 0; i < ducks.size(); i++) {
+                if (ducks.get(i).isHit(x, y)) {
+                    hits++;
+                }
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * The hit test of the ducks of a level with three ducks, for a shot that misses them all.
+     */
+    public static class HitTestMiss extends HitTestHit {
+        public HitTestMiss(double scale) {
+            super(scale, false);
+        }
+    }
+
+    /**
+     * The construction of the level screen of a level.
+     */
+    abstract static class LevelScreenConstruction implements Workload {
+        private final LevelSpec spec;
+        private final double scale;
+
+        LevelScreenConstruction(double scale, int level) {
+            this.scale = scale;
+            spec = LevelSpec.forLevel(level);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> createLevelScreen(spec, scale));
+        }
+    }
+
+    /**
+     * The construction of the level screen of level 1.
+     */
+    public static class LevelScreen1 extends LevelScreenConstruction {
+        public LevelScreen1(double scale) {
+            super(scale, 1);
+        }
+    }
+
+    /**
+     * The construction of the level screen of level 2.
+     */
+    public static class LevelScreen2 extends LevelScreenConstruction {
+        public LevelScreen2(double scale) {
+            super(scale, 2);
+        }
+    }
+
+    /**
+     * The construction of the level screen of level 3.
+     */
+    public static class LevelScreen3 extends LevelScreenConstruction {
+        public LevelScreen3(double scale) {
+            super(scale, 3);
+        }
+    }
+
+    /**
+     * The construction of the level screen of level 4.
+     */
+    public static class LevelScreen4 extends LevelScreenConstruction {
+        public LevelScreen4(double scale) {
+            super(scale, 4);
+        }
+    }
+
+    /**
+     * The construction of the level screen of level 5.
+     */
+    public static class LevelScreen5 extends LevelScreenConstruction {
+        public LevelScreen5(double scale) {
+            super(scale, 5);
+        }
+    }
+
+    /**
+     * The construction of the level screen of level 6.
+     */
+    public static class LevelScreen6 extends LevelScreenConstruction {
+        public LevelScreen6(double scale) {
+            super(scale, 6);
+        }
+    }
+
+    /**
+     * Decoding a duck frame the way the game did before the sprite cache: the size is probed by a first decode,
+     * and the frame is decoded again at the scale.
+     */
+    public static class DuckFrameDecodeRescaled implements Workload {
+        private final double scale;
+
+        public DuckFrameDecodeRescaled(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Object run() {
+            Image image = new Image("file:../assets/duck_red/1.png", 0, 0, true, true);
+            return new Image("file:../assets/duck_red/1.png", image.getWidth() * scale, image.getHeight() * scale, true, true);
+        }
+    }
+
+    /**
+     * Decoding a duck frame that the sprite prescaler has scaled ahead of time. At the scale 1 the frame itself is decoded,
+     * like the sprite cache does.
+     */
+    public static class DuckFrameDecodePrescaled implements Workload {
+        private final String url;
+
+        public DuckFrameDecodePrescaled(double scale) {
+            File prescaled = scale == 1.0 ? new File("../assets/duck_red/1.png") : SpritePrescaler.getPrescaledFile("duck_red/1.png", scale);
+            if (!prescaled.isFile()) {
+                throw new IllegalStateException("There is no pre-scaled sprite " + prescaled + ", run the SpritePrescaler for the scale " + scale);
+            }
+            url = "file:" + prescaled.getPath().replace(File.separatorChar, '/');
+        }
+
+        @Override
+        public Object run() {
+            return new Image(url);
+        }
+    }
+
+    /**
+     * Reading a duck frame from the sprite cache.
+     */
+    public static class DuckFrameFromSpriteCache implements Workload {
+        private final double scale;
+
+        public DuckFrameFromSpriteCache(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Object run() {
+            return SpriteCache.getDuckFrame("red", 1, scale);
+        }
+    }
+
+    /**
+     * The construction of a duck, with its sprites from the sprite cache.
+     */
+    public static class DuckConstruction implements Workload {
+        private final double scale;
+
+        public DuckConstruction(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Object run() {
+            return new Duck("red", scale, true, 256 * scale, 240 * scale);
+        }
+    }
+
+    /**
+     * Decoding a background.
+     */
+    public static class BackgroundDecode implements Workload {
+        public BackgroundDecode(double scale) {
+        }
+
+        @Override
+        public Object run() {
+            return new Image("file:../assets/background/1.png");
+        }
+    }
+
+    /**
+     * Decoding a foreground at the scale.
+     */
+    public static class ForegroundDecodeScaled implements Workload {
+        private final double scale;
+
+        public ForegroundDecodeScaled(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Object run() {
+            return new Image("file:../assets/foreground/1.png", 256 * scale, 240 * scale, true, true);
+        }
+    }
+
+    /**
+     * Decoding a crosshair.
+     */
+    public static class CrosshairDecode implements Workload {
+        public CrosshairDecode(double scale) {
+        }
+
+        @Override
+        public Object run() {
+            return new Image("file:../assets/crosshair/1.png");
+        }
+    }
+
+    /**
+     * An asset loader that has loaded all its images, as when the title music has played.
+     */
+    abstract static class LoadedAssets implements Workload {
+        final AssetLoader assetLoader;
+
+        LoadedAssets(double scale) {
+            assetLoader = new AssetLoader(scale);
+            assetLoader.whenReady().join();
+        }
+
+        @Override
+        public void close() {
+            assetLoader.shutdown();
+        }
+    }
+
+    /**
+     * The construction of the options screen.
+     */
+    public static class OptionsScreenConstruction extends LoadedAssets {
+        private final double scale;
+
+        public OptionsScreenConstruction(double scale) {
+            super(scale);
+            this.scale = scale;
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> new OptionsScreen(new StackPane(), scale, assetLoader));
+        }
+    }
+
+    /**
+     * Reading a foreground from the asset loader.
+     */
+    public static class ForegroundFromAssetLoader extends LoadedAssets {
+        public ForegroundFromAssetLoader(double scale) {
+            super(scale);
+        }
+
+        @Override
+        public Object run() {
+            return assetLoader.getForeground(0).join();
+        }
+    }
+
+    /**
+     * The ducks of a frame, at random positions of the sky, and the image the frame is rendered into.
+     */
+    abstract static class Frame implements Workload {
+        final double sceneWidth;
+        final double sceneHeight;
+        final Image background = SpriteCache.getImage("background/1.png", 1.0);
+        final Image foreground;
+        final ArrayList<Duck> ducks = new ArrayList<>();
+        final WritableImage frame;
+
+        Frame(double scale, int duckCount, String[] colors, double skyHeight) {
+            sceneWidth = 256 * scale;
+            sceneHeight = 240 * scale;
+            foreground = SpriteCache.getImage("foreground/1.png", scale);
+            Random random = new Random(42);
+            for (int i = 0; i < duckCount; i++) {
+                Duck duck = new Duck(colors[i % colors.length], scale, i % 2 == 0, sceneWidth, sceneHeight);
+                duck.setPosition(random.nextDouble() * sceneWidth * 0.85, random.nextDouble() * sceneHeight * skyHeight);
+                ducks.add(duck);
+            }
+            frame = new WritableImage((int) sceneWidth, (int) sceneHeight);
+        }
+
+        /**
+         * This method steps all the ducks and renders them as nodes.
+         */
+        void stepAndRender() {
+            for (int i = 0; i < ducks.size(); i++) {
+                ducks.get(i).getModel().step(GameLoop.STEP);
+                ducks.get(i).render();
+            }
+        }
+
+        /**
+         * This method returns a pane with the image views of all the ducks.
+         * @return the duck layer
+         */
+        Pane createDuckLayer() {
+            Pane duckLayer = new Pane();
+            for (Duck duck : ducks) {
+                duckLayer.getChildren().add(duck.getDuckImageView());
+            }
+            return duckLayer;
+        }
+    }
+
+    /**
+     * A frame of 2000 ducks rendered as a node for every duck: the ducks are stepped, rendered, and the scene is snapshot.
+     */
+    public static class RenderNodePerDuck extends Frame {
+        private final Scene scene;
+
+        public RenderNodePerDuck(double scale) {
+            super(scale, 2000, new String[]{"red", "blue", "black"}, 0.8);
+            StackPane root = new StackPane(new ImageView(background), createDuckLayer(), new ImageView(foreground));
+            root.setAlignment(Pos.TOP_LEFT);
+            scene = new Scene(root, sceneWidth, sceneHeight);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> {
+                stepAndRender();
+                return scene.snapshot(frame);
+            });
+        }
+    }
+
+    /**
+     * A frame of 2000 ducks rendered into a single canvas: the ducks are stepped, drawn, and the scene is snapshot.
+     */
+    public static class RenderCanvas extends Frame {
+        private final CanvasRenderer canvasRenderer;
+        private final Scene scene;
+
+        public RenderCanvas(double scale) {
+            super(scale, 2000, new String[]{"red", "blue", "black"}, 0.8);
+            canvasRenderer = new CanvasRenderer(background, foreground, sceneWidth, sceneHeight);
+            scene = new Scene(new StackPane(canvasRenderer.getCanvas()), sceneWidth, sceneHeight);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> {
+                for (int i = 0; i < ducks.size(); i++) {
+                    ducks.get(i).getModel().step(GameLoop.STEP);
+                }
+                canvasRenderer.render(ducks);
+                return scene.snapshot(frame);
+            });
+        }
+    }
+
+    /**
+     * A frame of a level of 3 ducks with the background and the foreground drawn again on every frame,
+     * the way the level screen drew them before.
+     */
+    public static class StaticLayersRedrawn extends Frame {
+        private final Scene scene;
+
+        public StaticLayersRedrawn(double scale) {
+            super(scale, 3, new String[]{"red"}, 0.4);
+            StackPane root = new StackPane(createDuckLayer(), new ImageView(foreground));
+            root.setAlignment(Pos.TOP_LEFT);
+            root.setBackground(new Background(new BackgroundImage(background, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(sceneWidth, sceneHeight, false, false, false, false))));
+            scene = new Scene(root, sceneWidth, sceneHeight);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> {
+                stepAndRender();
+                return scene.snapshot(frame);
+            });
+        }
+    }
+
+    /**
+     * A frame of a level of 3 ducks with the background and the foreground cached as bitmaps, the way the level screen draws them now.
+     */
+    public static class StaticLayersCached extends Frame {
+        private final Scene scene;
+
+        public StaticLayersCached(double scale) {
+            super(scale, 3, new String[]{"red"}, 0.4);
+            StackPane root = new StackPane(LevelScreen.createStaticLayer(background, sceneWidth, sceneHeight), createDuckLayer(),
+                    LevelScreen.createStaticLayer(foreground, foreground.getWidth(), foreground.getHeight()));
+            root.setAlignment(Pos.TOP_LEFT);
+            scene = new Scene(root, sceneWidth, sceneHeight);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> {
+                stepAndRender();
+                return scene.snapshot(frame);
+            });
+        }
+    }
+
+    /**
+     * The background of the canvas renderer scaled on every frame.
+     */
+    public static class CanvasBackgroundScaled extends Frame {
+        final GraphicsContext gc;
+        final Scene scene;
+
+        public CanvasBackgroundScaled(double scale) {
+            super(scale, 0, new String[]{"red"}, 0);
+            Canvas canvas = new Canvas(sceneWidth, sceneHeight);
+            gc = canvas.getGraphicsContext2D();
+            gc.setImageSmoothing(false);
+            scene = new Scene(new StackPane(canvas), sceneWidth, sceneHeight);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> {
+                gc.drawImage(background, 0, 0, sceneWidth, sceneHeight);
+                return scene.snapshot(frame);
+            });
+        }
+    }
+
+    /**
+     * The background of the canvas renderer copied from a pre-scaled background, the way the canvas renderer draws it now.
+     */
+    public static class CanvasBackgroundPrescaled extends CanvasBackgroundScaled {
+        private final Image prescaled;
+
+        public CanvasBackgroundPrescaled(double scale) {
+            super(scale);
+            prescaled = CanvasRenderer.prescale(background, sceneWidth, sceneHeight);
+        }
+
+        @Override
+        public Object run() throws Exception {
+            return FxThread.call(() -> {
+                gc.drawImage(prescaled, 0, 0);
+                return scene.snapshot(frame);
+            });
+        }
+    }
+}
@@ -0,0 +1,297 @@
+import bench.Workload;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+/**
+ * This class holds the workloads of the benchmarks that do not need JavaFX, measured by bench.HeadlessBenchmarks.
+ * Every workload is created with the scale of the game, and its run method is the measured operation.
+ */
+public class HeadlessWorkloads {
+    private HeadlessWorkloads() {
+    }
+
+    /**
+     * This method returns the widths of the duck frames at a scale, like the level uses them.
+     * @param scale the scale of the game
+     * @return the widths of the five frames
+     */
+    private static double[] frameWidths(double scale) {
+        return new double[]{27 * scale, 32 * scale, 25 * scale, 31 * scale, 18 * scale};
+    }
+
+    /**
+     * This method returns the heights of the duck frames at a scale, like the level uses them.
+     * @param scale the scale of the game
+     * @return the heights of the five frames
+     */
+    private static double[] frameHeights(double scale) {
+        return new double[]{31 * scale, 29 * scale, 31 * scale, 29 * scale, 31 * scale};
+    }
+
+    /**
+     * A simulation tick of a duck that flies diagonally.
+     */
+    public static class DuckStepDiagonal implements Workload {
+        private final DuckModel model;
+
+        public DuckStepDiagonal(double scale) {
+            this(scale, true);
+        }
+
+        DuckStepDiagonal(double scale, boolean diagonal) {
+            model = new DuckModel(diagonal, frameWidths(scale), frameHeights(scale), 3, 10 * scale, 256 * scale, 240 * scale);
+            model.setPosition(128 * scale, 60 * scale);
+        }
+
+        @Override
+        public Object run() {
+            model.step(GameLoop.STEP);
+            return model.getX();
+        }
+    }
+
+    /**
+     * A simulation tick of a duck that flies horizontally.
+     */
+    public static class DuckStepHorizontal extends DuckStepDiagonal {
+        public DuckStepHorizontal(double scale) {
+            super(scale, false);
+        }
+    }
+
+    /**
+     * A step of a flock of 4000 ducks, with the ducks steered on the calling thread.
+     */
+    public static class FlockStepSerial implements Workload {
+        private final FlockSimulation simulation;
+
+        public FlockStepSerial(double scale) {
+            this(scale, false);
+        }
+
+        FlockStepSerial(double scale, boolean parallel) {
+            simulation = new FlockSimulation(scale, 256 * scale, 240 * scale, 4000, 42);
+            simulation.setParallel(parallel);
+        }
+
+        @Override
+        public Object run() {
+            simulation.tick();
+            return simulation.getFlyingCount();
+        }
+    }
+
+    /**
+     * A step of a flock of 4000 ducks, with the ducks steered on all the cores.
+     */
+    public static class FlockStepParallel extends FlockStepSerial {
+        public FlockStepParallel(double scale) {
+            super(scale, true);
+        }
+    }
+
+    /**
+     * A swarm of 500 ducks at random positions, with a spatial grid of them and 64 random shots.
+     */
+    abstract static class Swarm implements Workload {
+        final DuckModel[] models = new DuckModel[500];
+        final SpatialGrid grid;
+        final double[] shotX = new double[64];
+        final double[] shotY = new double[64];
+        int shot = 0;
+
+        Swarm(double scale) {
+            double sceneWidth = 256 * scale;
+            double sceneHeight = 240 * scale;
+            Random random = new Random(42);
+            for (int i = 0; i < models.length; i++) {
+                models[i] = new DuckModel(i % 2 == 0, frameWidths(scale), frameHeights(scale), 3, 10 * scale, sceneWidth, sceneHeight);
+                models[i].setPosition(random.nextDouble() * sceneWidth * 0.85, random.nextDouble() * sceneHeight * 0.8);
+            }
+            grid = new SpatialGrid(sceneWidth, sceneHeight, 40 * scale);
+            for (int i = 0; i < shotX.length; i++) {
+                shotX[i] = random.nextDouble() * sceneWidth;
+                shotY[i] = random.nextDouble() * sceneHeight;
+            }
+            rebuildGrid();
+        }
+
+        /**
+         * This method inserts all the ducks of the swarm into the spatial grid again, like the level does on every step.
+         */
+        void rebuildGrid() {
+            grid.clear();
+            for (int i = 0; i < models.length; i++) {
+                grid.insert(i, models[i].getMinX() - 1, models[i].getMinY() - 1, models[i].getMaxX(), models[i].getMaxY());
+            }
+        }
+    }
+
+    /**
+     * The hit test of a shot on the swarm, scanning all the ducks.
+     */
+    public static class SwarmHitTestLinear extends Swarm {
+        public SwarmHitTestLinear(double scale) {
+            super(scale);
+        }
+
+        @Override
+        public Object run() {
+            int s = shot++ & 63;
+            int hits = 0;
+            for (DuckModel model : models) {
+                if (model.isHit(shotX[s], shotY[s])) {
+                    hits++;
+                }
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * The rebuild of the spatial grid of the swarm.
+     */
+    public static class SwarmGridRebuild extends Swarm {
+        public SwarmGridRebuild(double scale) {
+            super(scale);
+        }
+
+        @Override
+        public Object run() {
+            rebuildGrid();
+            return grid;
+        }
+    }
+
+    /**
+     * The hit test of a shot on the swarm, testing only the ducks in the cell of the spatial grid under the shot.
+     */
+    public static class SwarmHitTestGrid extends Swarm {
+        public SwarmHitTestGrid(double scale) {
+            super(scale);
+        }
+
+        @Override
+        public Object run() {
+            int s = shot++ & 63;
+            int hits = 0;
+            int candidates = grid.query(shotX[s], shotY[s]);
+            for (int c = 0; c < candidates; c++) {
+                if (models[grid.getResult(c)].isHit(shotX[s], shotY[s])) {
+                    hits++;
+                }
+            }
+            return hits;
+        }
+    }
+
+    /**
+     * A score store in a temporary directory with 100000 plays over three days.
+     */
+    abstract static class Scores implements Workload {
+        static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+        static final long LAST_MILLIS = 20002 * DAY_MILLIS + DAY_MILLIS / 2; // a time of the last day of the plays
+        final File directory;
+        final ScoreStore store;
+        final Random random = new Random(42);
+
+        Scores() throws Exception {
+            directory = Files.createTempDirectory("duckhunt-scores").toFile();
+            store = new ScoreStore(directory, 10, ZoneOffset.UTC);
+            ScoreStore.Mode[] modes = ScoreStore.Mode.values();
+            int plays = 100000;
+            for (int i = 0; i < plays; i++) {
+                store.record(modes[random.nextInt(modes.length)], random.nextInt(1000000), i % 50, 20000 * DAY_MILLIS + i * (3 * DAY_MILLIS / plays));
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            store.close();
+            for (File file : directory.listFiles()) {
+                Files.delete(file.toPath());
+            }
+            Files.delete(directory.toPath());
+        }
+    }
+
+    /**
+     * Recording a play in the score store.
+     */
+    public static class ScoreStoreRecord extends Scores {
+        public ScoreStoreRecord(double scale) throws Exception {
+        }
+
+        @Override
+        public Object run() {
+            store.record(ScoreStore.Mode.LEVELS, random.nextInt(1000000), 10, LAST_MILLIS);
+            return store.getPlayCount();
+        }
+    }
+
+    /**
+     * Reading the best 10 scores of all time from the score store.
+     */
+    public static class ScoreStoreTopAllTime extends Scores {
+        public ScoreStoreTopAllTime(double scale) throws Exception {
+        }
+
+        @Override
+        public Object run() {
+            return store.getTopAllTime(ScoreStore.Mode.ENDLESS);
+        }
+    }
+
+    /**
+     * Reading the best 10 scores of the day from the score store.
+     */
+    public static class ScoreStoreTopDaily extends Scores {
+        public ScoreStoreTopDaily(double scale) throws Exception {
+        }
+
+        @Override
+        public Object run() {
+            return store.getTopDaily(ScoreStore.Mode.ENDLESS, LAST_MILLIS);
+        }
+    }
+
+    /**
+     * Placing 500 ducks apart from each other in the sky of a level.
+     */
+    public static class SpawnPlacement implements Workload {
+        private final SpawnPlacer placer = new SpawnPlacer(42);
+        private final double scale;
+
+        public SpawnPlacement(double scale) {
+            this.scale = scale;
+        }
+
+        @Override
+        public Object run() {
+            return placer.place(500, 12.8 * scale, 12 * scale, 217.6 * scale, 96 * scale, 34 * scale);
+        }
+    }
+
+    /**
+     * Queueing a shot and handing it to the game loop.
+     */
+    public static class InputQueueShot implements Workload {
+        private final InputQueue inputQueue = new InputQueue();
+        private final InputQueue.ShotHandler shotHandler;
+        private double shotSum = 0;
+
+        public InputQueueShot(double scale) {
+            shotHandler = (x, y) -> shotSum += x + y;
+        }
+
+        @Override
+        public Object run() {
+            inputQueue.offer(1, 2, System.nanoTime());
+            inputQueue.drain(shotHandler);
+            return shotSum;
+        }
+    }
+}
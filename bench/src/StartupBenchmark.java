@@ -0,0 +1,102 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class measures the time from the start of the game process to the first interactive frame of the title screen.
+ * Every run starts the game in a new JVM with --measure-startup, which prints the time and exits, so every run is a cold start.
+ * If a class data sharing archive is given, the runs are repeated with it, to compare the startup with and without it.
+ * The startupBenchmark task runs it from the app directory of the distribution, with the classpath of the game and the benchmarks:
+ * java -cp duckhunt.jar:(bench classes) StartupBenchmark [runs] [--archive=duckhunt.jsa] [-- JVM options of the game]
+ */
+public class StartupBenchmark {
+    private static final String PREFIX = "First interactive frame: ";
+
+    /**
+     * The entry point of the startup benchmark.
+     * @param args the number of runs, --archive= the class data sharing archive to compare with,
+     *             and the JVM options of the game after --
+     * @throws Exception if the game can not be started
+     */
+    public static void main(String[] args) throws Exception {
+        int runs = 10;
+        String archive = null;
+        List<String> jvmOptions = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--")) {
+                jvmOptions.addAll(Arrays.asList(args).subList(i + 1, args.length));
+                break;
+            } else if (args[i].startsWith("--archive=")) {
+                archive = args[i].substring("--archive=".length());
+            } else {
+                runs = Integer.parseInt(args[i]);
+            }
+        }
+        measure("Time to first interactive frame", runs, jvmOptions);
+        if (archive != null) {
+            if (!new File(archive).isFile()) {
+                System.out.println("There is no archive " + archive + ", create it with a --cds-training run");
+                return;
+            }
+            List<String> archiveOptions = new ArrayList<>(jvmOptions);
+            archiveOptions.add("-XX:SharedArchiveFile=" + archive);
+            measure("Time to first interactive frame, CDS archive", runs, archiveOptions);
+        }
+    }
+
+    /**
+     * This method starts the game a number of times and prints the statistics of the startup times.
+     * @param name The name of the measurement.
+     * @param runs The number of runs.
+     * @param jvmOptions The JVM options of the game.
+     * @throws Exception if the game can not be started or does not print its startup time
+     */
+    private static void measure(String name, int runs, List<String> jvmOptions) throws Exception {
+        long[] times = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            times[i] = startGame(jvmOptions);
+        }
+        Arrays.sort(times);
+        long sum = 0;
+        for (long time : times) {
+            sum += time;
+        }
+        System.out.printf("%-50s median %6d ms  min %6d ms  max %6d ms  mean %8.1f ms  (%d runs)%n",
+                name, times[runs / 2], times[0], times[runs - 1], (double) sum / runs, runs);
+    }
+
+    /**
+     * This method starts the game in a new JVM with --measure-startup and waits for it to exit.
+     * @param jvmOptions The JVM options of the game.
+     * @return the time to the first interactive frame printed by the game, in milliseconds
+     * @throws Exception if the game can not be started or does not print its startup time
+     */
+    private static long startGame(List<String> jvmOptions) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java")); // the same JVM as the benchmark
+        command.addAll(jvmOptions);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("DuckHunt");
+        command.add("--measure-startup");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        long startupMillis = -1;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(PREFIX)) {
+                    startupMillis = Long.parseLong(line.substring(PREFIX.length(), line.length() - " ms".length()));
+                }
+            }
+        }
+        process.waitFor();
+        if (startupMillis < 0) {
+            throw new IOException("The game did not print its startup time, exit code " + process.exitValue());
+        }
+        return startupMillis;
+    }
+}
@@ -0,0 +1,73 @@
+package bench;
+
+import javafx.application.Platform;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the operations of the game that need JavaFX: the hit test of a level, the construction of the level
+ * and options screens, the decoding of the images, and the rendering of the ducks and the static layers of a level.
+ * Every workload is a class nested in FxWorkloads, chosen with the workload parameter. The JavaFX toolkit is started
+ * before the first workload is created, and the workloads that use the scene graph run on the JavaFX application thread.
+ * On a machine without a display, run them with the headless Monocle platform.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FxBenchmarks {
+    private static boolean started = false; // the toolkit can only be started once in a JVM
+    @Param({"HitTestHit", "HitTestMiss",
+            "LevelScreen1", "LevelScreen2", "LevelScreen3", "LevelScreen4", "LevelScreen5", "LevelScreen6",
+            "DuckFrameDecodeRescaled", "DuckFrameDecodePrescaled", "DuckFrameFromSpriteCache", "DuckConstruction",
+            "BackgroundDecode", "ForegroundDecodeScaled", "CrosshairDecode", "OptionsScreenConstruction", "ForegroundFromAssetLoader",
+            "RenderNodePerDuck", "RenderCanvas", "StaticLayersRedrawn", "StaticLayersCached",
+            "CanvasBackgroundScaled", "CanvasBackgroundPrescaled"})
+    public String workload;
+    @Param("1.0")
+    public double scale;
+    private Workload operation;
+
+    /**
+     * This method starts the JavaFX toolkit and creates the workload on its thread before it is measured.
+     * @throws Exception if the toolkit can not be started or the workload can not be created
+     */
+    @Setup
+    public void setUp() throws Exception {
+        synchronized (FxBenchmarks.class) {
+            if (!started) {
+                CountDownLatch latch = new CountDownLatch(1);
+                Platform.startup(latch::countDown);
+                latch.await();
+                started = true;
+            }
+        }
+        operation = FxThread.call(() -> Workload.create("FxWorkloads$" + workload, scale));
+    }
+
+    /**
+     * This method releases the workload after it was measured.
+     * @throws Exception if the workload can not be released
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        FxThread.call(() -> {
+            operation.close();
+            return null;
+        });
+    }
+
+    /**
+     * This method runs the measured operation.
+     * @return the result of the operation, consumed by JMH
+     * @throws Exception if the operation fails
+     */
+    @Benchmark
+    public Object run() throws Exception {
+        return operation.run();
+    }
+}
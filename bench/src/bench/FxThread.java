@@ -0,0 +1,41 @@
+package bench;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * This class runs the work of the benchmarks that uses the scene graph on the JavaFX application thread.
+ */
+public class FxThread {
+    private FxThread() {
+    }
+
+    /**
+     * This method calls a task on the JavaFX application thread and waits for its result.
+     * @param task the task to be called
+     * @param <T> the type of the result
+     * @return the result of the task
+     * @throws Exception the exception of the task, or InterruptedException if the waiting thread is interrupted
+     */
+    public static <T> T call(Callable<T> task) throws Exception {
+        if (Platform.isFxApplicationThread()) {
+            return task.call();
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Exception e) {
+                result.completeExceptionally(e);
+            }
+        });
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class measures the operations of the game that do not need JavaFX: the duck physics, a step of the flock,
+ * the hit test of a swarm of ducks, the score store, the spawn placer and the input queue.
+ * Every workload is a class nested in HeadlessWorkloads, chosen with the workload parameter.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeadlessBenchmarks {
+    @Param({"DuckStepDiagonal", "DuckStepHorizontal", "FlockStepSerial", "FlockStepParallel",
+            "SwarmHitTestLinear", "SwarmGridRebuild", "SwarmHitTestGrid",
+            "ScoreStoreRecord", "ScoreStoreTopAllTime", "ScoreStoreTopDaily", "SpawnPlacement", "InputQueueShot"})
+    public String workload;
+    @Param("1.0")
+    public double scale;
+    private Workload operation;
+
+    /**
+     * This method creates the workload before it is measured.
+     * @throws Exception if the workload can not be created
+     */
+    @Setup
+    public void setUp() throws Exception {
+        operation = Workload.create("HeadlessWorkloads$" + workload, scale);
+    }
+
+    /**
+     * This method releases the workload after it was measured.
+     * @throws Exception if the workload can not be released
+     */
+    @TearDown
+    public void tearDown() throws Exception {
+        operation.close();
+    }
+
+    /**
+     * This method runs the measured operation.
+     * @return the result of the operation, consumed by JMH
+     * @throws Exception if the operation fails
+     */
+    @Benchmark
+    public Object run() throws Exception {
+        return operation.run();
+    }
+}
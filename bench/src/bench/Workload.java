@@ -0,0 +1,37 @@
+package bench;
+
+/**
+ * This interface is an operation of the game measured by the benchmarks.
+ * The workloads are in the default package with the game classes, which can not be used from a package,
+ * so the benchmarks create them by the name of their class and measure them through this interface.
+ */
+public interface Workload {
+    /**
+     * This method runs the operation once.
+     * @return a result of the operation, consumed by the benchmark so the operation is not dead code
+     * @throws Exception if the operation fails, the benchmark is aborted
+     */
+    Object run() throws Exception;
+
+    /**
+     * This method releases what the workload created, after it was measured.
+     * @throws Exception if it can not be released
+     */
+    default void close() throws Exception {
+    }
+
+    /**
+     * This method creates a workload from the name of its class, which has a public constructor with the scale.
+     * @param className the binary name of the class of the workload
+     * @param scale the scale of the game the workload is measured at
+     * @return the workload
+     * @throws Exception if the workload can not be created
+     */
+    static Workload create(String className, double scale) throws Exception {
+        try {
+            return (Workload) Class.forName(className).getConstructor(double.class).newInstance(scale);
+        } catch (java.lang.reflect.InvocationTargetException e) { // the exception of the constructor itself
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+    }
+}
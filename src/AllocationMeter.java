@@ -0,0 +1,24 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * This class measures the memory allocated by the current thread, to see how much garbage an operation creates.
+ * It uses the allocation counter of the HotSpot thread management bean, and reports -1 on virtual machines without it.
+ */
+public class AllocationMeter {
+    private static final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private AllocationMeter() {
+    }
+
+    /**
+     * This method returns the number of bytes allocated by the current thread since it was started.
+     * @return the allocated bytes, or -1 if the virtual machine does not count them
+     */
+    public static long getAllocatedBytes() {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
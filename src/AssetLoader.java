@@ -0,0 +1,143 @@
+import javafx.scene.image.Image;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * This class loads the images of the options screen and the levels in the background.
+ * It is started while the title music plays, so the backgrounds, crosshairs and foregrounds are usually decoded
+ * before the options screen is opened. Every image is loaded once and handed out as a future,
+ * which the screens can wait for, or use to show the image as soon as it is ready.
+ * The images are decoded through the SpriteCache, so they are shared with the rest of the game.
+ */
+public class AssetLoader {
+    public static final int BACKGROUND_COUNT = 6; // the number of backgrounds, every background has a foreground with the same index
+    public static final int CROSSHAIR_COUNT = 7; // the number of crosshairs
+    private static final String ASSETS_DIRECTORY = "../assets/";
+    private final ExecutorService executor;
+    private final List<CompletableFuture<Image>> backgrounds = new ArrayList<>();
+    private final List<CompletableFuture<Image>> crosshairs = new ArrayList<>();
+    private final List<CompletableFuture<Image>> foregrounds = new ArrayList<>();
+    private final double backgroundWidth;
+    private final double backgroundHeight;
+    private final CompletableFuture<Void> ready; // completed when all the images are loaded
+
+    /**
+     * This constructor starts loading the images on a background thread.
+     * The images shown first on the options screen are loaded first.
+     * @param scale The scale of the game visuals, the foregrounds are decoded at this scale.
+     */
+    public AssetLoader(double scale) {
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "asset-loader");
+            thread.setDaemon(true); // the loader must not keep the application running
+            return thread;
+        });
+        int[] size = SpriteCache.readPngSize(new File(ASSETS_DIRECTORY + "background/1.png")); // only the header is read
+        backgroundWidth = size == null ? 256 : size[0];
+        backgroundHeight = size == null ? 240 : size[1];
+        backgrounds.add(load("background/1.png", 1.0));
+        crosshairs.add(load("crosshair/1.png", 1.0));
+        for (int i = 2; i <= BACKGROUND_COUNT; i++) {
+            backgrounds.add(load("background/" + i + ".png", 1.0));
+        }
+        for (int i = 2; i <= CROSSHAIR_COUNT; i++) {
+            crosshairs.add(load("crosshair/" + i + ".png", 1.0));
+        }
+        for (int i = 1; i <= BACKGROUND_COUNT; i++) { // the foregrounds are needed last, when a level is started
+            foregrounds.add(load("foreground/" + i + ".png", scale));
+        }
+        List<CompletableFuture<Image>> all = new ArrayList<>(backgrounds);
+        all.addAll(crosshairs);
+        all.addAll(foregrounds);
+        ready = CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]));
+    }
+
+    /**
+     * This method queues an image to be loaded on the loader thread.
+     * @param path The path of the image, relative to the assets directory.
+     * @param scale The scale of the image.
+     * @return the future of the image
+     */
+    private CompletableFuture<Image> load(String path, double scale) {
+        return CompletableFuture.supplyAsync(() -> SpriteCache.getImage(path, scale), executor);
+    }
+
+    /**
+     * This method returns the executor of the loader thread, to run other loading work behind the images, like preparing a level
+     * @return the executor of the loader thread
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * This method returns a background image, unscaled.
+     * @param index The index of the background, starting from 0.
+     * @return the future of the background image
+     */
+    public CompletableFuture<Image> getBackground(int index) {
+        return backgrounds.get(index);
+    }
+
+    /**
+     * This method returns a crosshair image, unscaled.
+     * @param index The index of the crosshair, starting from 0.
+     * @return the future of the crosshair image
+     */
+    public CompletableFuture<Image> getCrosshair(int index) {
+        return crosshairs.get(index);
+    }
+
+    /**
+     * This method returns the foreground image of a background, decoded at the scale of the game.
+     * @param index The index of the background, starting from 0.
+     * @return the future of the foreground image
+     */
+    public CompletableFuture<Image> getForeground(int index) {
+        return foregrounds.get(index);
+    }
+
+    /**
+     * This method returns the width of the backgrounds, read from the header of the first background.
+     * @return the unscaled width of the backgrounds
+     */
+    public double getBackgroundWidth() {
+        return backgroundWidth;
+    }
+
+    /**
+     * This method returns the height of the backgrounds, read from the header of the first background.
+     * @return the unscaled height of the backgrounds
+     */
+    public double getBackgroundHeight() {
+        return backgroundHeight;
+    }
+
+    /**
+     * This method returns a future that is completed when all the images are loaded.
+     * @return the future of all the images
+     */
+    public CompletableFuture<Void> whenReady() {
+        return ready;
+    }
+
+    /**
+     * This method returns whether all the images are loaded.
+     * @return true if all the images are loaded
+     */
+    public boolean isReady() {
+        return ready.isDone();
+    }
+
+    /**
+     * This method stops the loader thread, the images that are not loaded yet are not loaded anymore.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
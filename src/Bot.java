@@ -0,0 +1,23 @@
+import java.util.Random;
+
+/**
+ * A player of the bot harness. A bot looks at the level simulation on every simulation step and decides whether to shoot.
+ * A bot is used by one game at a time, so it can keep the state of its aim between steps.
+ */
+public interface Bot {
+    /**
+     * This method is called when a level is loaded, before its first step.
+     * @param simulation The simulation of the level.
+     * @param random The random number generator of the game.
+     */
+    void startLevel(LevelSimulation simulation, Random random);
+
+    /**
+     * This method decides whether the bot shoots at the current simulation step, the shot is fired before the step.
+     * @param simulation The simulation of the level.
+     * @param random The random number generator of the game.
+     * @param shot The array the x and y coordinates of the shot are written to.
+     * @return true if the bot shoots
+     */
+    boolean aim(LevelSimulation simulation, Random random, double[] shot);
+}
@@ -0,0 +1,255 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * This class plays complete games with bots on level simulations, without JavaFX, to measure the difficulty of the levels.
+ * A game plays the levels in order until a level is failed, like the game does. The games are independent,
+ * every game has its own simulation, bot and random number generator seeded from the seed of the harness and the index
+ * of the game, so they run in parallel on all the cores with a parallel stream and the results do not depend on the
+ * number of cores. The results are the win rate of every level and the distribution of the shots used to complete it.
+ * Run it from the src directory after the build: java -cp ../build/classes/java/main BotHarness [--games=N] [--reaction=S] [--accuracy=A] [--seed=N] [--speeds=L:M,M,M]
+ */
+public class BotHarness {
+    private static final double MAX_LEVEL_TIME = 120; // a level that takes longer than this many seconds is counted as failed
+    private final LevelSpec[] specs = new LevelSpec[LevelSpec.LEVEL_COUNT];
+    private final Supplier<Bot> botFactory;
+    private final double scale;
+    private final double sceneWidth;
+    private final double sceneHeight;
+    private final long seed;
+
+    /**
+     * This class collects the results of games. The results of games played in parallel are collected separately and merged.
+     */
+    public static class Results {
+        private final int[] played = new int[LevelSpec.LEVEL_COUNT];
+        private final int[] won = new int[LevelSpec.LEVEL_COUNT];
+        private final long[] wonTicks = new long[LevelSpec.LEVEL_COUNT]; // the simulation steps of the won levels, for the mean time
+        private final int[][] shots = new int[LevelSpec.LEVEL_COUNT][]; // the number of won levels for every number of shots used
+        private int games;
+        private int gamesWon;
+
+        /**
+         * This constructor creates empty results for the levels of a game.
+         * @param specs The levels of the game.
+         */
+        public Results(LevelSpec[] specs) {
+            for (int i = 0; i < specs.length; i++) {
+                shots[i] = new int[specs[i].getAmmoCount() + 1];
+            }
+        }
+
+        /**
+         * This method adds the results of another collection to this one.
+         * @param other The results to be added.
+         */
+        public void merge(Results other) {
+            for (int i = 0; i < LevelSpec.LEVEL_COUNT; i++) {
+                played[i] += other.played[i];
+                won[i] += other.won[i];
+                wonTicks[i] += other.wonTicks[i];
+                for (int s = 0; s < shots[i].length; s++) {
+                    shots[i][s] += other.shots[i][s];
+                }
+            }
+            games += other.games;
+            gamesWon += other.gamesWon;
+        }
+
+        /**
+         * This method returns the number of games played
+         * @return the number of games
+         */
+        public int getGames() {
+            return games;
+        }
+
+        /**
+         * This method returns the number of games in which all the levels were completed
+         * @return the number of won games
+         */
+        public int getGamesWon() {
+            return gamesWon;
+        }
+
+        /**
+         * This method returns the number of games that reached a level
+         * @param level the level, between 1 and the number of levels
+         * @return the number of times the level was played
+         */
+        public int getPlayed(int level) {
+            return played[level - 1];
+        }
+
+        /**
+         * This method returns the number of games that completed a level
+         * @param level the level, between 1 and the number of levels
+         * @return the number of times the level was completed
+         */
+        public int getWon(int level) {
+            return won[level - 1];
+        }
+
+        /**
+         * This method returns how many times a level was completed with a number of shots
+         * @param level the level, between 1 and the number of levels
+         * @param shotCount the number of shots
+         * @return the number of times the level was completed with that many shots
+         */
+        public int getWonWithShots(int level, int shotCount) {
+            return shotCount < shots[level - 1].length ? shots[level - 1][shotCount] : 0;
+        }
+
+        /**
+         * This method prints the results as a table, a line for every level.
+         */
+        public void print() {
+            System.out.printf("%-6s %8s %8s %9s %10s %8s  %s%n", "Level", "Played", "Won", "Win rate", "Mean shots", "Mean s", "Shots to complete");
+            for (int i = 0; i < LevelSpec.LEVEL_COUNT; i++) {
+                long shotSum = 0;
+                StringBuilder distribution = new StringBuilder();
+                for (int s = 1; s < shots[i].length; s++) {
+                    shotSum += (long) s * shots[i][s];
+                    distribution.append(String.format("%d:%.1f%% ", s, won[i] == 0 ? 0 : 100.0 * shots[i][s] / won[i]));
+                }
+                System.out.printf("%-6d %8d %8d %8.1f%% %10.2f %8.1f  %s%n", i + 1, played[i], won[i],
+                        played[i] == 0 ? 0 : 100.0 * won[i] / played[i],
+                        won[i] == 0 ? 0 : (double) shotSum / won[i],
+                        won[i] == 0 ? 0 : wonTicks[i] * LevelSimulation.STEP / won[i],
+                        distribution.toString().trim());
+            }
+            System.out.printf("Games won: %d of %d (%.1f%%)%n", gamesWon, games, games == 0 ? 0 : 100.0 * gamesWon / games);
+        }
+    }
+
+    /**
+     * This constructor creates a harness for the levels of the game.
+     * @param botFactory Creates the bot of a game.
+     * @param scale The scale of the game visuals.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     * @param seed The seed of the harness, the same seed plays the same games.
+     */
+    public BotHarness(Supplier<Bot> botFactory, double scale, double sceneWidth, double sceneHeight, long seed) {
+        this.botFactory = botFactory;
+        this.scale = scale;
+        this.sceneWidth = sceneWidth;
+        this.sceneHeight = sceneHeight;
+        this.seed = seed;
+        for (int i = 0; i < specs.length; i++) {
+            specs[i] = LevelSpec.forLevel(i + 1);
+        }
+    }
+
+    /**
+     * This method replaces the speed multipliers of a level, to compare the difficulty of different speeds.
+     * @param level The level, between 1 and the number of levels.
+     * @param multipliers The speed multiplier of every duck of the level.
+     */
+    public void setSpeedMultipliers(int level, double[] multipliers) {
+        specs[level - 1] = specs[level - 1].withSpeedMultipliers(multipliers);
+    }
+
+    /**
+     * This method plays games in parallel on the common fork-join pool and collects their results.
+     * @param games The number of games.
+     * @return the results of the games
+     */
+    public Results run(int games) {
+        return IntStream.range(0, games).parallel().collect(() -> new Results(specs), this::playGame, Results::merge);
+    }
+
+    /**
+     * This method plays a game and adds its result to the results of the thread.
+     * @param results The results of the thread.
+     * @param game The index of the game, the seed of the game is derived from it.
+     */
+    private void playGame(Results results, int game) {
+        Random random = new Random(seed + game * 0x9E3779B97F4A7C15L); // spreads the seeds of consecutive games
+        LevelSimulation simulation = new LevelSimulation(scale, sceneWidth, sceneHeight);
+        Bot bot = botFactory.get();
+        double[] shot = new double[2];
+        long maxTicks = Math.round(MAX_LEVEL_TIME / LevelSimulation.STEP);
+        results.games++;
+        for (int i = 0; i < specs.length; i++) {
+            simulation.load(specs[i], random.nextLong());
+            bot.startLevel(simulation, random);
+            results.played[i]++;
+            int shotCount = 0;
+            while (!simulation.isComplete() && !simulation.isFailed() && simulation.getTickCount() < maxTicks) {
+                if (bot.aim(simulation, random, shot) && simulation.shoot(shot[0], shot[1]) >= 0) { // the shot is fired before the step, like in the game loop
+                    shotCount++;
+                }
+                simulation.tick();
+            }
+            if (!simulation.isComplete()) { // the game is over
+                return;
+            }
+            results.won[i]++;
+            results.wonTicks[i] += simulation.getTickCount();
+            results.shots[i][shotCount]++;
+        }
+        results.gamesWon++;
+    }
+
+    /**
+     * The entry point of the bot harness.
+     * @param args --games=N, --reaction=S for the reaction time in seconds, --accuracy=A between 0 and 1, --scale=S,
+     *             --seed=N, and --speeds=L:M,M,M to replace the speed multipliers of level L, which can be given for several levels
+     */
+    public static void main(String[] args) {
+        int games = 10000;
+        double reactionTime = 0.25;
+        double accuracy = 0.8;
+        double scale = 1.0;
+        long seed = new Random().nextLong();
+        ArrayList<String> speeds = new ArrayList<>();
+        for (String arg : args) {
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (arg.startsWith("--games=")) {
+                games = Integer.parseInt(value);
+            } else if (arg.startsWith("--reaction=")) {
+                reactionTime = Double.parseDouble(value);
+            } else if (arg.startsWith("--accuracy=")) {
+                accuracy = Double.parseDouble(value);
+            } else if (arg.startsWith("--scale=")) {
+                scale = Double.parseDouble(value);
+            } else if (arg.startsWith("--seed=")) {
+                seed = Long.parseLong(value);
+            } else if (arg.startsWith("--speeds=")) {
+                speeds.add(value);
+            } else {
+                System.out.println("Unknown option " + arg);
+                return;
+            }
+        }
+        int[] backgroundSize = SpriteCache.readPngSize(new File("../assets/background/1.png")); // all the backgrounds have the same size
+        if (backgroundSize == null) {
+            System.out.println("The background can not be read, run the harness from the src directory");
+            return;
+        }
+        double botReactionTime = reactionTime;
+        double botAccuracy = accuracy;
+        double botScale = scale;
+        BotHarness harness = new BotHarness(() -> new ReactionBot(botReactionTime, botAccuracy, botScale), scale, backgroundSize[0] * scale, backgroundSize[1] * scale, seed);
+        for (String levelSpeeds : speeds) { // L:M,M,M
+            int level = Integer.parseInt(levelSpeeds.substring(0, levelSpeeds.indexOf(':')));
+            String[] values = levelSpeeds.substring(levelSpeeds.indexOf(':') + 1).split(",");
+            double[] multipliers = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                multipliers[i] = Double.parseDouble(values[i]);
+            }
+            harness.setSpeedMultipliers(level, multipliers);
+        }
+        System.out.printf("%d games, reaction time %.2f s, accuracy %.2f, seed %d, %d cores%n",
+                games, reactionTime, accuracy, seed, Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        Results results = harness.run(games);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        results.print();
+        System.out.printf("Played in %.2f s, %.0f games/s%n", seconds, games / seconds);
+    }
+}
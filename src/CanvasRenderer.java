@@ -0,0 +1,103 @@
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import java.util.List;
+
+/**
+ * This class renders a level into a single Canvas, instead of a node for every duck.
+ * The background, the sprites of all the ducks and the foreground are drawn in one pass over the GraphicsContext,
+ * so the scene graph has no layout, bounds or transform work to do for the ducks, however many there are.
+ * A duck is drawn the way its ImageView would show it: flipped by its facing and rotated around its center.
+ * The background is scaled to the size of the canvas once, when the renderer is created,
+ * so every frame copies it instead of scaling it again.
+ */
+public class CanvasRenderer {
+    private final Canvas canvas;
+    private final GraphicsContext graphicsContext;
+    private final Image backgroundImage;
+    private final Image foregroundImage;
+
+    /**
+     * This constructor creates the renderer and its canvas. It must be called on the JavaFX application thread.
+     * @param backgroundImage The background image, it is stretched to the size of the canvas.
+     * @param foregroundImage The foreground image, already scaled to the size of the canvas.
+     * @param width The width of the canvas.
+     * @param height The height of the canvas.
+     */
+    public CanvasRenderer(Image backgroundImage, Image foregroundImage, double width, double height) {
+        this.backgroundImage = prescale(backgroundImage, width, height);
+        this.foregroundImage = foregroundImage;
+        canvas = new Canvas(width, height);
+        graphicsContext = canvas.getGraphicsContext2D();
+        graphicsContext.setImageSmoothing(false); // the sprites are pixel art, like the ImageViews they must not be blurred
+    }
+
+    /**
+     * This method draws the background, the ducks and the foreground.
+     * @param ducks The ducks to be drawn, in the order they are stacked.
+     */
+    public void render(List<Duck> ducks) {
+        GraphicsContext gc = graphicsContext;
+        gc.drawImage(backgroundImage, 0, 0); // the background covers the previous frame
+        for (int i = 0; i < ducks.size(); i++) {
+            drawDuck(gc, ducks.get(i));
+        }
+        gc.drawImage(foregroundImage, 0, 0);
+    }
+
+    /**
+     * This method scales an image once, the way a canvas without image smoothing draws it scaled, so that it can be
+     * drawn at its natural size on every frame. It must be called on the JavaFX application thread.
+     * @param image The image.
+     * @param width The width of the scaled image.
+     * @param height The height of the scaled image.
+     * @return the scaled image, or the image itself if it already has the size
+     */
+    public static Image prescale(Image image, double width, double height) {
+        if (image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        Canvas scaled = new Canvas(width, height); // drawn like the canvas of the renderer would draw it on every frame
+        GraphicsContext gc = scaled.getGraphicsContext2D();
+        gc.setImageSmoothing(false);
+        gc.drawImage(image, 0, 0, width, height);
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        return scaled.snapshot(parameters, null);
+    }
+
+    /**
+     * This method draws a duck at the position, facing and rotation of its model.
+     * @param gc The graphics context of the canvas.
+     * @param duck The duck to be drawn.
+     */
+    private void drawDuck(GraphicsContext gc, Duck duck) {
+        DuckModel model = duck.getModel();
+        Image image = duck.getImage();
+        double width = image.getWidth();
+        double height = image.getHeight();
+        double facing = model.getFacing();
+        double rotation = model.getRotation();
+        if (facing == 1 && rotation == 0) { // most of the ducks need no transform
+            gc.drawImage(image, model.getX(), model.getY());
+            return;
+        }
+        double radians = Math.toRadians(rotation);
+        double cos = Math.cos(radians);
+        double sin = Math.sin(radians);
+        // translate to the center of the sprite, rotate, then flip horizontally, as the ImageView does around its center
+        gc.setTransform(cos * facing, sin * facing, -sin, cos, model.getX() + width / 2, model.getY() + height / 2);
+        gc.drawImage(image, -width / 2, -height / 2);
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+    }
+
+    /**
+     * This method returns the canvas the level is drawn into
+     * @return the canvas
+     */
+    public Canvas getCanvas() {
+        return canvas;
+    }
+}
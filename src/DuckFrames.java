@@ -0,0 +1,66 @@
+import java.io.File;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class knows the animation frames of the ducks: which sprite file every frame is, and how large it is.
+ * The sizes are read from the PNG headers without decoding the sprites, so the simulation can place and bounce
+ * the ducks without JavaFX, and with the same sizes as the rendered sprites.
+ */
+public final class DuckFrames {
+    public static final int FLYING_FRAME_COUNT = 3; // frames 1-3 fly diagonally, frames 4-6 fly horizontally
+    public static final int FRAME_COUNT = 5; // the flying frames followed by the 2 falling frames, 7 and 8
+    private static final String ASSETS_DIRECTORY = "../assets/";
+    private static final ConcurrentHashMap<String, int[]> sizes = new ConcurrentHashMap<>();
+
+    private DuckFrames() {
+    }
+
+    /**
+     * This method returns the number of the sprite file of a frame.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @param frameIndex The index of the frame, the flying frames followed by the falling frames.
+     * @return the number of the sprite file, between 1 and 8
+     */
+    public static int getFrameNumber(boolean movesDiagonal, int frameIndex) {
+        if (frameIndex < FLYING_FRAME_COUNT) {
+            return (movesDiagonal ? 1 : 4) + frameIndex;
+        }
+        return 7 + frameIndex - FLYING_FRAME_COUNT;
+    }
+
+    /**
+     * This method fills the scaled sizes of the frames of a duck.
+     * @param duckColor The color of the duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @param scale The scale of the duck.
+     * @param widths The array the widths of the frames are written to.
+     * @param heights The array the heights of the frames are written to.
+     */
+    public static void getFrameSizes(String duckColor, boolean movesDiagonal, double scale, double[] widths, double[] heights) {
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            String path = "duck_" + duckColor + "/" + getFrameNumber(movesDiagonal, i) + ".png";
+            int[] size = sizes.computeIfAbsent(path, p -> SpriteCache.readPngSize(new File(ASSETS_DIRECTORY + p)));
+            if (size == null) {
+                throw new IllegalStateException("The duck frame " + path + " can not be read");
+            }
+            widths[i] = size[0] * scale;
+            heights[i] = size[1] * scale;
+        }
+    }
+
+    /**
+     * This method creates the model of a duck with the sizes of its frames.
+     * @param duckColor The color of the duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @param scale The scale of the duck.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     * @return the model of the duck
+     */
+    public static DuckModel createModel(String duckColor, boolean movesDiagonal, double scale, double sceneWidth, double sceneHeight) {
+        double[] widths = new double[FRAME_COUNT];
+        double[] heights = new double[FRAME_COUNT];
+        getFrameSizes(duckColor, movesDiagonal, scale, widths, heights);
+        return new DuckModel(movesDiagonal, widths, heights, FLYING_FRAME_COUNT, 10 * scale, sceneWidth, sceneHeight);
+    }
+}
@@ -1,21 +1,15 @@
-import javafx.animation.FadeTransition;
-import javafx.animation.Timeline;
+import javafx.animation.AnimationTimer;
 import javafx.application.Application;
-import javafx.geometry.Pos;
+import javafx.application.Platform;
 import javafx.scene.ImageCursor;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
+import javafx.scene.input.KeyCode;
 import javafx.scene.layout.*;
-import javafx.scene.media.*;
-import javafx.scene.paint.Color;
-import javafx.scene.text.Font;
-import javafx.scene.text.FontWeight;
-import javafx.scene.text.Text;
-import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
-import javafx.util.Duration;
 import java.io.File;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The main class of the game. This class extends the JavaFX Application class and is the entry point of the game.
@@ -25,10 +19,31 @@ import java.util.ArrayList;
 public class DuckHunt extends Application {
     private static Double SCALE = 1.0; //default scale
     private static Double VOLUME = 0.001; //default volume
+    private static boolean CANVAS_RENDERING = false; //whether the levels are drawn into a canvas instead of a node for every duck
+    private static boolean MEASURE_STARTUP = false; //whether the time to the first interactive frame is printed and the game exits
+    private static boolean CDS_TRAINING = false; //whether the game plays through its screens and exits, to record the loaded classes in a CDS archive
+    private static int FLOCK_SIZE = 2000; //the number of ducks of the flock mode
+    private static int WAVE_BUDGET = 8; //the most ducks in the sky at the same time in the endless mode
+    private static final int TOP_SCORES = 10; //the number of plays in every table of the high scores
     private Image crosshair; //crosshair image
     private BackgroundImage backgroundImage; //background image
     private Image foregroundImage; //foreground image
-    private MediaPlayer mediaPlayer; //media player, defined as global variable to ensure access from all methods
+    private AssetLoader assetLoader; //loads the images of the options screen and the levels in the background
+    private SoundEngine soundEngine; //sound engine with separate music and effects channels, defined as global variable to ensure access from all methods
+    private LevelScreen levelScreen; //level screen, reused for every level as long as the background is not changed
+    private FlockScreen flockScreen; //scene of the flock mode, created when the flock mode is started
+    private String levelScreenBackground; //url of the background image the level screen was created with
+    private Image levelScreenCrosshair; //crosshair image the cursor of the level screen was created with
+    private PerformanceMonitor performanceMonitor; //frame time overlay of the level screen, toggled with F3, also writes the frame times to a CSV file
+    private GameEvents.LevelEnded levelEndedEvent; //flight recorder event of the current level, begun when the level is started
+    private ReplayRecorder replayRecorder; //records the levels and shots of the current game, started for every new game, null in the endless mode
+    private boolean endless = false; //whether the waves of the endless mode are played instead of the levels
+    private WaveGenerator waveGenerator; //generates the waves of the endless mode, created when the endless mode is first started
+    private CompletableFuture<ScoreStore> scoreStore; //high scores of the levels and the endless mode, opened on the asset loader thread after the first frame of the title screen
+    private int gameScore = -1; //score of the game in progress, 100 points times the level or wave for every duck, -1 when there is no game or its score is recorded
+    private int gameDucks; //ducks shot in the game in progress
+    private boolean titleShown = false; //whether the first frame of the title screen has been rendered
+    private MessageOverlay messageOverlay; //overlay for the game over and level complete messages, reused for every message
     private final boolean[] levelComplete = new boolean[]{false}; //boolean array to check if level is complete, defined as array to ensure access from lambda expressions
     private final boolean[] levelFailed = new boolean[]{false}; //boolean array to check if level is failed, defined as array to ensure access from lambda expressions
     private final boolean[] gameOver = new boolean[]{false}; //boolean array to check if game is over, defined as array to ensure access from lambda expressions
@@ -36,9 +51,43 @@ public class DuckHunt extends Application {
 
     /**
      * main method for environments that do not support JavaFX Application launch
+     * The arguments are the scale and the volume, --renderer=canvas draws the levels into a canvas,
+     * --seed=N plays the session from a fixed seed, --flock=N sets the number of ducks of the flock mode,
+     * and --wave-budget=N sets the most ducks in the sky at the same time in the endless mode.
+     * --measure-startup prints the time to the first interactive frame and exits,
+     * --cds-training opens the options and level screens and exits, for a run that records a class data sharing archive.
      * @param args command line arguments
      */
     public static void main(String[] args) {
+        ArrayList<String> values = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--renderer=")) { //the renderer is chosen at startup
+                System.out.println("Renderer: " + arg.substring("--renderer=".length()));
+                setCanvasRendering(arg.equals("--renderer=canvas"));
+            } else if (arg.equals("--measure-startup")) {
+                MEASURE_STARTUP = true;
+            } else if (arg.equals("--cds-training")) {
+                CDS_TRAINING = true;
+            } else if (arg.startsWith("--flock=")) { //the flock mode is started with F on the options screen
+                FLOCK_SIZE = Integer.parseInt(arg.substring("--flock=".length()));
+                if (FLOCK_SIZE < 1) { //the flock needs at least one duck, so the mode does not fail when it is started
+                    System.out.println("Usage: --flock=N, where N is at least 1");
+                    return;
+                }
+            } else if (arg.startsWith("--wave-budget=")) { //the endless mode is started with E on the options screen
+                WAVE_BUDGET = Integer.parseInt(arg.substring("--wave-budget=".length()));
+                if (WAVE_BUDGET < 1) { //a wave needs at least one duck in the sky, so the mode does not fail when it is started
+                    System.out.println("Usage: --wave-budget=N, where N is at least 1");
+                    return;
+                }
+            } else if (arg.startsWith("--seed=")) { //the same seed places the same ducks in every level
+                System.out.println("Seed: " + arg.substring("--seed=".length()));
+                GameRandom.setSeed(Long.parseLong(arg.substring("--seed=".length())));
+            } else {
+                values.add(arg);
+            }
+        }
+        args = values.toArray(new String[0]);
         if (args.length > 0) {
             if (args.length == 1) {
                 System.out.println("Scale: " + args[0]);
@@ -52,20 +101,94 @@ public class DuckHunt extends Application {
         }
         launch(args);
     }
+    /**
+     * Shows the title screen. Only the title screen is created before the window is shown, the title music,
+     * the favicon, the asset loader and the performance monitor are started after the first frame,
+     * and the effects are loaded when the intro music starts, so that the window is usable as early as possible.
+     * @param mainStage the main stage of the application
+     */
     @Override
     public void start(Stage mainStage) {
         mainStage.setTitle("HUBBM Duck Hunt");
-        mainStage.getIcons().add(new Image("file:../assets/favicon/1.png")); //setting favicon
         mainStage.setResizable(false); //disabling resizing
         StackPane root = new StackPane();
         mainStage.setScene(new TitleScreen(root, SCALE).getThisScene()); //setting scene to title screen
         mainStage.show(); //showing main stage
-        Media titleSound = new Media(new File("../assets/effects/Title.mp3").toURI().toString()); //loading title music
-        mediaPlayer = new MediaPlayer(titleSound); //creating media player
-        mediaPlayer.setVolume(VOLUME);
-        mediaPlayer.play(); //playing title music
+        soundEngine = new SoundEngine(VOLUME, 4); //up to 4 voices of every effect can be heard at the same time, no media is created yet
         root.requestFocus(); //requesting focus for key events
         TitleScreenEventHandler(mainStage); //calling event handler for title screen
+        new AnimationTimer() { //waiting for the first frame of the title screen
+            private int frames = 0;
+            @Override
+            public void handle(long now) {
+                if (++frames < 2) { //the first frame has been rendered when the next pulse runs
+                    return;
+                }
+                stop();
+                firstFrameShown(mainStage);
+            }
+        }.start();
+    }
+
+    /**
+     * Called once the first frame of the title screen has been rendered. It logs the time from the start of the process,
+     * and starts what the title screen does not need to be shown.
+     * @param mainStage the main stage of the application
+     */
+    private void firstFrameShown(Stage mainStage) {
+        long startupMillis = ProcessHandle.current().info().startInstant()
+                .map(start -> System.currentTimeMillis() - start.toEpochMilli()).orElse(-1L);
+        GameLog.info("startup.firstFrame", "ms", startupMillis);
+        if (MEASURE_STARTUP) {
+            System.out.println("First interactive frame: " + startupMillis + " ms");
+            Platform.exit();
+            return;
+        }
+        titleShown = true;
+        if (mainStage.getScene() instanceof TitleScreen) { //the title screen may already have been left
+            soundEngine.playMusic("Title.mp3", true, null); //playing title music in loop
+        }
+        mainStage.getIcons().add(new Image("file:../assets/favicon/1.png")); //setting favicon
+        if (assetLoader == null) {
+            assetLoader = new AssetLoader(SCALE); //loading the options and level images while the title music plays
+        }
+        if (performanceMonitor == null) {
+            performanceMonitor = new PerformanceMonitor(SCALE, CANVAS_RENDERING ? "canvas" : "nodes", new File("../logs/performance.csv"));
+        }
+        showLeaderboard(mainStage); //the high scores are read from the index, without reading the plays
+        if (CDS_TRAINING) {
+            trainingRun(mainStage);
+        }
+    }
+
+    /**
+     * Opens the options screen and the first level and exits, so that a run with -XX:ArchiveClassesAtExit
+     * records the classes of all the screens in the class data sharing archive.
+     * @param mainStage the main stage of the application
+     */
+    private void trainingRun(Stage mainStage) {
+        StackPane optionsRoot = new StackPane();
+        OptionsScreen optionsScreen = new OptionsScreen(optionsRoot, SCALE, assetLoader);
+        mainStage.setScene(optionsScreen.getThisScene());
+        assetLoader.whenReady().thenRun(() -> Platform.runLater(() -> {
+            soundEngine.loadEffect("Gunshot.mp3");
+            soundEngine.loadEffect("DuckFalls.mp3");
+            crosshair = optionsScreen.getCrosshair(optionsRoot);
+            backgroundImage = optionsScreen.getBackgroundImage(optionsRoot);
+            foregroundImage = optionsScreen.getForegroundImage(optionsRoot);
+            startLevel(mainStage, 1);
+            new AnimationTimer() { //letting the game loop run a few frames before exiting
+                private int frames = 0;
+                @Override
+                public void handle(long now) {
+                    if (++frames == 30) {
+                        stop();
+                        System.out.println("Training run completed");
+                        Platform.exit();
+                    }
+                }
+            }.start();
+        }));
     }
     /**
      * Event handler method for the title screen scene. The title music is played in loop.
@@ -76,34 +199,31 @@ public class DuckHunt extends Application {
      */
     private void TitleScreenEventHandler(Stage mainStage) {
         StackPane root = (StackPane) mainStage.getScene().getRoot();
-        Media titleSound = new Media(new File("../assets/effects/Title.mp3").toURI().toString());
-        if (mediaPlayer.getStatus().equals(MediaPlayer.Status.PLAYING) && !mediaPlayer.getMedia().getSource().equals(titleSound.getSource())) { //checking if title music is playing
-            mediaPlayer.stop();
-            mediaPlayer = new MediaPlayer(titleSound);
-            mediaPlayer.setVolume(VOLUME);
-            mediaPlayer.play();
-        } else if (mediaPlayer.getStatus().equals(MediaPlayer.Status.STOPPED) && !mediaPlayer.getMedia().getSource().equals(titleSound.getSource())) { //checking if title music is stopped
-            mediaPlayer = new MediaPlayer(titleSound);
-            mediaPlayer.setVolume(VOLUME);
-            mediaPlayer.play();
+        if (scoreStore != null) { //the store is opened after the first frame at startup
+            showLeaderboard(mainStage);
+        }
+        if (titleShown && !soundEngine.isMusicPlaying("Title.mp3")) { //checking if title music is playing, the other tracks are replaced by it, it is started after the first frame at startup
+            soundEngine.playMusic("Title.mp3", true, null);
         }
-        mediaPlayer.setOnEndOfMedia(() -> { //checking if title music has ended, and replaying if so
-            mediaPlayer.seek(Duration.ZERO);
-            mediaPlayer.play();
-        });
         root.setOnKeyReleased(e -> { //handling key events
             switch (e.getCode()) {
                 case ENTER:
-                    System.out.println("ENTER from TitleScreen");
+                    GameLog.debug("input.key", "screen", "title", "key", "ENTER");
+                    GameEvents.SceneTransition transition = new GameEvents.SceneTransition();
+                    transition.begin();
                     root.getChildren().clear(); //clearing root
+                    if (assetLoader == null) { //the title screen was left before its first frame
+                        assetLoader = new AssetLoader(SCALE);
+                    }
                     StackPane optionsRoot = new StackPane(); //creating new root for options screen
-                    mainStage.setScene(new OptionsScreen(optionsRoot, SCALE).getThisScene()); //setting scene to options screen
+                    mainStage.setScene(new OptionsScreen(optionsRoot, SCALE, assetLoader).getThisScene()); //setting scene to options screen
                     mainStage.show();
                     optionsRoot.requestFocus();
                     OptionsScreenEventHandler(mainStage); //calling event handler for options screen
+                    commitTransition(transition, "title", "options", false);
                     break;
                 case ESCAPE:
-                    System.out.println("ESCAPE from TitleScreen");
+                    GameLog.debug("input.key", "screen", "title", "key", "ESCAPE");
                     mainStage.close(); //closing application
                     break;
             }
@@ -115,62 +235,64 @@ public class DuckHunt extends Application {
      * This method is also responsible for setting the scene to the title screen when the ESCAPE key is pressed.
      * This method is also responsible for setting the scene to the game level screen when the ENTER key is pressed.
      * The level screen is not loaded until the intro music is played to the end.
+     * The flock mode is started when the F key is pressed, and the endless mode when the E key is pressed, also after the intro music.
      * @param mainStage the main stage of the application
      */
     private void OptionsScreenEventHandler(Stage mainStage) {
         StackPane root = (StackPane) mainStage.getScene().getRoot();
         OptionsScreen optionsScreen = (OptionsScreen) mainStage.getScene();
-        Media introSound = new Media(new File("../assets/effects/Intro.mp3").toURI().toString()); //loading intro music
         root.setOnKeyReleased(e -> { //handling key events, OnKeyReleased is used to prevent multiple key presses
             switch (e.getCode()) { //checking which key is pressed
                 case ENTER: //ENTER key is pressed
-                    System.out.println("ENTER from OptionsScreen");
-                    System.out.println(mediaPlayer.statusProperty().getValue()); //printing status of media player to check if intro music is playing
-                    if (mediaPlayer.statusProperty().getValue().equals(MediaPlayer.Status.PLAYING) && !mediaPlayer.getMedia().equals(introSound)) { //checking if intro music is playing
-                        mediaPlayer.stop();
-                        mediaPlayer = new MediaPlayer(introSound);
-                        mediaPlayer.setVolume(VOLUME);
-                        mediaPlayer.play();
-                        mediaPlayer.setOnEndOfMedia(() -> { //checking if intro music has ended, and loading level screen if so
-                            mediaPlayer.stop();
-                            StackPane levelRoot = new StackPane();
-                            mainStage.setScene(new LevelScreen(levelRoot, backgroundImage, foregroundImage, SCALE, 1).getThisScene());
-                            mainStage.getScene().setCursor(new ImageCursor(crosshair));
-                            mainStage.show();
-                            levelRoot.requestFocus();
-                            LevelScreenEventHandler(mainStage, 1);
+                case F: //F key is pressed, the flock mode is started instead of the first level
+                case E: //E key is pressed, the first wave of the endless mode is started instead of the first level
+                    GameLog.debug("input.key", "screen", "options", "key", e.getCode().name());
+                    boolean flockMode = e.getCode() == KeyCode.F;
+                    endless = e.getCode() == KeyCode.E;
+                    if (!soundEngine.isMusicPlaying("Intro.mp3")) { //checking if intro music is playing
+                        soundEngine.playMusic("Intro.mp3", false, () -> { //loading level screen when the intro music has ended
+                            crosshair = optionsScreen.getCrosshair(root); //the chosen images are loaded by the time the intro music ends
+                            backgroundImage = optionsScreen.getBackgroundImage(root);
+                            foregroundImage = optionsScreen.getForegroundImage(root);
+                            if (flockMode) {
+                                startFlock(mainStage);
+                            } else {
+                                startLevel(mainStage, 1);
+                            }
                         });
+                        soundEngine.loadEffect("Gunshot.mp3"); //loading the effects while the intro music plays, so that they are played without delay
+                        soundEngine.loadEffect("DuckFalls.mp3");
                     }
                     break;
                 case ESCAPE: //ESCAPE key is pressed
-                    System.out.println("ESCAPE from OptionsScreen");
+                    GameLog.debug("input.key", "screen", "options", "key", "ESCAPE");
+                    GameEvents.SceneTransition transition = new GameEvents.SceneTransition();
+                    transition.begin();
                     root.getChildren().clear();
                     StackPane titleRoot = new StackPane();
                     mainStage.setScene(new TitleScreen(titleRoot, SCALE).getThisScene()); //setting scene to title screen
                     mainStage.show();
                     titleRoot.requestFocus();
                     TitleScreenEventHandler(mainStage);
+                    commitTransition(transition, "options", "title", false);
                     break;
                 case RIGHT:
-                    System.out.println("RIGHT from OptionsScreen");
+                    GameLog.debug("input.key", "screen", "options", "key", "RIGHT");
                     optionsScreen.changeBackgroundImage(root, "next"); //changing background image
                     break;
                 case LEFT:
-                    System.out.println("LEFT from OptionsScreen");
+                    GameLog.debug("input.key", "screen", "options", "key", "LEFT");
                     optionsScreen.changeBackgroundImage(root, "previous"); //changing background image
                     break;
                 case UP:
-                    System.out.println("UP from OptionsScreen");
+                    GameLog.debug("input.key", "screen", "options", "key", "UP");
                     optionsScreen.changeCrosshair(root, "next"); //changing crosshair
                     break;
                 case DOWN:
-                    System.out.println("DOWN from OptionsScreen");
+                    GameLog.debug("input.key", "screen", "options", "key", "DOWN");
                     optionsScreen.changeCrosshair(root, "previous"); //changing crosshair
                     break;
             }
-            crosshair = optionsScreen.getCrosshair((StackPane) optionsScreen.getThisScene().getRoot()); //getting crosshair image from options screen
-            backgroundImage = optionsScreen.getBackgroundImage((StackPane) optionsScreen.getThisScene().getRoot()); //getting background image
-            foregroundImage = optionsScreen.getForegroundImage((StackPane) optionsScreen.getThisScene().getRoot()); //getting foreground image
         });
     }
     /**
@@ -178,203 +300,453 @@ public class DuckHunt extends Application {
      * This method is responsible for handling the key events on the game level screen. <br>
      * This method is also responsible for setting the scene to the title screen when the ESCAPE key is pressed.<br>
      * This method is also responsible for setting the scene to the game level screen when the ENTER key is pressed. <br>
-     * This method is also responsible for handling the mouse click events,
-     * which represent gunshots on the game level screen.
-     * @param mainStage the main stage of the application
+     * This method is also responsible for handling the mouse presses,
+     * which represent gunshots on the game level screen. The shots are queued and handled by the game loop.
+     * @param mainStage the main stage of the application, its scene is the level screen
      * @param l the level of the game
      */
     private void LevelScreenEventHandler(Stage mainStage, Integer l) {
-        StackPane root = (StackPane) mainStage.getScene().getRoot();
-        LevelScreen levelScreen = (LevelScreen) mainStage.getScene();
-        ArrayList<ImageView> ducks = levelScreen.getDuckImageViews();
-        ArrayList<Timeline> duckAnimations = levelScreen.getDuckAnimations();
-        ArrayList<Duck> duckObjects = levelScreen.getDuckObjects();
-        Media gunshotSound = new Media(new File("../assets/effects/Gunshot.mp3").toURI().toString());
+        StackPane root = (StackPane) levelScreen.getRoot();
+        LevelSimulation simulation = levelScreen.getSimulation();
         final int[] level = {l}; //level of the game is stored in an array to be able to change it in the event handler
-        root.setOnMouseClicked(e -> { //handling mouse click events
+        root.setOnMousePressed(e -> { //the shot is queued when the mouse button is pressed, not when it is released
             double x = e.getX() + crosshair.getWidth()/2; //getting x coordinate of mouse click, added half of crosshair width to get the center of the crosshair
             double y = e.getY() + crosshair.getHeight()/2; //getting y coordinate of mouse click added half of crosshair height to get the center of the crosshair
-            if (levelScreen.getAmmoCount() > 0 && levelScreen.getDuckCount() > 0) {  //checking if there is ammo left and if there are ducks left
-                mediaPlayer = new MediaPlayer(gunshotSound); //playing gunshot sound
-                mediaPlayer.setVolume(VOLUME);
-                mediaPlayer.play();
-                levelScreen.updateAmmoText(); //updating ammo text
-            } else { //if there is no ammo left or there are no ducks left
+            levelScreen.getInputQueue().offer(x, y, System.nanoTime()); //the time of the press is kept to measure the latency of the shot
+        });
+        levelScreen.getGameLoop().setInput(levelScreen.getInputQueue(), (x, y) -> { //handling the queued shots at the start of the next frame of the game loop
+            GameEvents.ShotFired shotEvent = new GameEvents.ShotFired();
+            shotEvent.begin();
+            if (!simulation.canShoot()) { //checking if there is ammo left and if there are ducks left
                 return; //returning from method
             }
-            for (int i = 0; i < ducks.size(); i++) { //looping through ducks
-                ImageView duck = ducks.get(i);
-                if ((duck.getBoundsInParent().contains(x, y) || duck.getBoundsInParent().intersects(x, y, 1, 1)) && !duckObjects.get(i).getShot()) { //checking if duck is already shot and if mouse click is on duck
-                    System.out.println("Duck " + i + " was shot");
-                    Timeline duckAnimation = duckAnimations.get(i);
-                    duckAnimation.getKeyFrames().clear(); //clearing duck animation key frames
-                    Duck duckObject = duckObjects.get(i);
-                    duckAnimation.getKeyFrames().add(duckObject.getFallingWingFlappingKeyFrame()); //adding falling wing flapping key frame to duck animation
-                    duckAnimation.getKeyFrames().add(duckObject.getFallingMotionKeyFrame()); //adding falling motion key frame to duck animation
-                    duckAnimation.setCycleCount(30); //setting cycle count of duck animation to 30 so that the animation is not played infinitely
-                    mediaPlayer = new MediaPlayer(duckObject.getFallingSound());
-                    mediaPlayer.setVolume(VOLUME);
-                    mediaPlayer.play();
-                    duckAnimation.play();
-                    System.out.println(((LevelScreen) mainStage.getScene()).getAmmoCount());
-                    levelScreen.duckShot();
-                    duckObjects.get(i).setShot(true);
-                    if (levelScreen.getDuckCount() == 0) { //checking if there are no ducks left, if so, level is complete
-                        levelComplete[0] = true;
-                        level[0]++;
-                        break;
-                    }
-                }
-                if (levelScreen.getAmmoCount() == 0 && levelScreen.getDuckCount() != 0) { //checking if there is no ammo left and if there are ducks left
-                    levelFailed[0] = true;
-                    break;
+            soundEngine.playEffect("Gunshot.mp3"); //playing gunshot sound
+            if (replayRecorder != null) {
+                replayRecorder.recordShot(simulation.getTickCount(), x, y); //the shot is replayed at the same simulation step
+            }
+            int candidateCount = simulation.getCandidateCount(x, y); //only the ducks in the grid cell of the shot can be hit
+            int hits = simulation.shoot(x, y); //the simulation uses a bullet and makes the hit ducks fall
+            levelScreen.updateAmmoText(); //updating ammo text
+            for (int h = 0; h < hits; h++) { //looping through the ducks that are hit
+                int i = simulation.getHit(h);
+                soundEngine.playEffect(levelScreen.getDuckObjects().get(i).getFallingSound()); //playing falling sound
+                GameLog.info("duck.shot", "duck", i, "ammoLeft", simulation.getAmmoCount(), "ducksLeft", simulation.getDuckCount());
+                if (gameScore >= 0) {
+                    gameScore += 100 * l; //the ducks of the later levels and waves are worth more
+                    gameDucks++;
                 }
+                GameEvents.HitRegistered hitEvent = new GameEvents.HitRegistered();
+                hitEvent.level = l;
+                hitEvent.duckIndex = i;
+                hitEvent.ducksLeft = simulation.getDuckCount();
+                hitEvent.commit();
+            }
+            if (hits > 0 && simulation.isComplete()) { //checking if there are no ducks left, if so, level is complete
+                levelComplete[0] = true;
+                level[0]++;
+            }
+            if (simulation.isFailed()) { //checking if there is no ammo left and if there are ducks left
+                levelFailed[0] = true;
+            }
+            shotEvent.level = l;
+            shotEvent.x = x;
+            shotEvent.y = y;
+            shotEvent.ammoLeft = levelScreen.getAmmoCount();
+            shotEvent.candidates = candidateCount;
+            shotEvent.hits = hits;
+            shotEvent.commit();
+            if (levelFailed[0] || levelComplete[0]) { //the level has ended with this shot
+                commitLevelEnded(levelComplete[0] ? "complete" : "failed");
             }
             if (levelScreen.getAmmoCount() == 0 && levelScreen.getDuckCount() != 0 && levelFailed[0]) { //checking if there is no ammo left and if there are ducks left and if level is failed
-                System.out.println("Game Over");
-                StackPane gameOverRoot = new StackPane();
-                gameOverRoot.setAlignment(Pos.TOP_CENTER);
-                Text gameOverText = new Text("GAME OVER");
-                gameOverText.setTextAlignment(TextAlignment.CENTER);
-                Color color = Color.rgb(241, 159, 20);
-                gameOverText.setFill(color);
-                gameOverText.setFont(Font.font("Arial", FontWeight.BOLD, 15* SCALE));
-                gameOverText.setTranslateY(levelScreen.getScaledHeight()*0.35);
-                Text restartText = new Text("Press ENTER to play again\nPress ESC to exit");
-                restartText.setTextAlignment(TextAlignment.CENTER);
-                restartText.setFill(color);
-                restartText.setFont(Font.font("Arial", FontWeight.BOLD, 15* SCALE));
-                restartText.setTranslateY(levelScreen.getScaledHeight()*0.35 + 20* SCALE);
-                FadeTransition fadeTransition = new FadeTransition(Duration.seconds(0.6), restartText); //creating fade transition for restart text to make it blink
-                fadeTransition.setFromValue(1.0);
-                fadeTransition.setToValue(0.0);
-                fadeTransition.setCycleCount(Timeline.INDEFINITE);
-                fadeTransition.setAutoReverse(true);
-                gameOverRoot.getChildren().addAll(gameOverText, restartText);
-                root.getChildren().add(gameOverRoot);
-                mediaPlayer = new MediaPlayer(new Media(new File("../assets/effects/GameOver.mp3").toURI().toString())); //playing game over sound
-                mediaPlayer.setVolume(VOLUME);
-                mediaPlayer.play();
-                fadeTransition.play();
-                gameOverRoot.requestFocus();
+                GameLog.info("game.over", "level", l, "endless", endless);
+                String subtitle = (endless ? "Waves cleared: " + (l - 1) + "   " : "") + "Score: " + Math.max(gameScore, 0) + "\nPress ENTER to play again\nPress ESC to exit";
+                recordScore();
+                messageOverlay.show(root, "GAME OVER", subtitle, levelScreen.getScaledHeight()*0.35, levelScreen.getScaledHeight()*0.35 + 20* SCALE);
+                soundEngine.playMusic("GameOver.mp3", false, null); //playing game over sound
                 levelFailed[0] = false;
                 gameOver[0] = true; //setting game over to true to be able to restart the game
-            } else if (levelScreen.getDuckCount() == 0 && levelComplete[0] && (level[0] - 1) == 6) { //checking if there are no ducks left and if level is complete and if level is 6
-                System.out.println("Game Complete");
-                StackPane gameCompleteRoot = new StackPane();
-                gameCompleteRoot.setAlignment(Pos.TOP_CENTER);
-                Text gameCompleteText = new Text("You have completed the game!");
-                gameCompleteText.setTextAlignment(TextAlignment.CENTER);
-                Color color = Color.rgb(241, 159, 20);
-                gameCompleteText.setFill(color);
-                gameCompleteText.setFont(Font.font("Arial", FontWeight.BOLD, 15* SCALE));
-                gameCompleteText.setTranslateY(levelScreen.getScaledHeight()*0.35);
-                Text restartText = new Text("Press ENTER to play again\nPress ESC to exit");
-                restartText.setTextAlignment(TextAlignment.CENTER);
-                restartText.setFill(color);
-                restartText.setFont(Font.font("Arial", FontWeight.BOLD, 15* SCALE));
-                restartText.setTranslateY(levelScreen.getScaledHeight()*0.35 + 20* SCALE);
-                FadeTransition fadeTransition = new FadeTransition(Duration.seconds(0.6), restartText); //creating fade transition for restart text to make it blink
-                fadeTransition.setFromValue(1.0);
-                fadeTransition.setToValue(0.0);
-                fadeTransition.setCycleCount(Timeline.INDEFINITE);
-                fadeTransition.setAutoReverse(true);
-                gameCompleteRoot.getChildren().addAll(gameCompleteText, restartText);
-                root.getChildren().add(gameCompleteRoot);
-                mediaPlayer = new MediaPlayer(new Media(new File("../assets/effects/GameCompleted.mp3").toURI().toString())); //playing game complete sound
-                mediaPlayer.setVolume(VOLUME);
-                mediaPlayer.play();
-                fadeTransition.play();
-                gameCompleteRoot.requestFocus();
+            } else if (!endless && levelScreen.getDuckCount() == 0 && levelComplete[0] && (level[0] - 1) == LevelSpec.LEVEL_COUNT) { //checking if there are no ducks left and if level is complete and if it is the last level, the endless mode has no last wave
+                GameLog.info("game.complete");
+                messageOverlay.show(root, "You have completed the game!", "Score: " + Math.max(gameScore, 0) + "\nPress ENTER to play again\nPress ESC to exit", levelScreen.getScaledHeight()*0.35, levelScreen.getScaledHeight()*0.35 + 20* SCALE);
+                recordScore();
+                soundEngine.playMusic("GameCompleted.mp3", false, null); //playing game complete sound
                 levelComplete[0] = false;
                 gameComplete[0] = true; //setting game complete to true to be able to restart the game
             }
             else if (levelScreen.getDuckCount() == 0 && levelComplete[0]) { //checking if there are no ducks left and if level is complete
-                System.out.println("Level " + (level[0] - 1) + " Complete");
-                StackPane levelCompleteRoot = new StackPane();
-                levelCompleteRoot.setAlignment(Pos.TOP_CENTER);
-                Text youWinText = new Text("YOU WIN!");
-                youWinText.setTextAlignment(TextAlignment.CENTER);
-                Color color = Color.rgb(241, 159, 20);
-                youWinText.setFill(color);
-                youWinText.setFont(Font.font("Arial", FontWeight.BOLD, 15* SCALE));
-                youWinText.setTranslateY(levelScreen.getScaledHeight()*0.35);
-                Text nextLevelText = new Text("Press ENTER to play next level");
-                nextLevelText.setTextAlignment(TextAlignment.CENTER);
-                nextLevelText.setFill(color);
-                nextLevelText.setFont(Font.font("Arial", FontWeight.BOLD, 15* SCALE));
-                nextLevelText.setTranslateY(levelScreen.getScaledHeight()*0.425);
-                FadeTransition fadeTransition = new FadeTransition(Duration.seconds(0.6), nextLevelText); //creating fade transition for next level text to make it blink
-                fadeTransition.setFromValue(1.0);
-                fadeTransition.setToValue(0.0);
-                fadeTransition.setCycleCount(Timeline.INDEFINITE);
-                fadeTransition.setAutoReverse(true);
-                levelCompleteRoot.getChildren().addAll(youWinText, nextLevelText);
-                root.getChildren().add(levelCompleteRoot);
-                mediaPlayer = new MediaPlayer(new Media(new File("../assets/effects/LevelCompleted.mp3").toURI().toString())); //playing level complete sound
-                mediaPlayer.setVolume(VOLUME);
-                mediaPlayer.play();
-                mediaPlayer.setOnEndOfMedia(() -> mediaPlayer.stop());
-                fadeTransition.play();
-                levelCompleteRoot.requestFocus();
+                GameLog.info("level.complete", "level", level[0] - 1, "endless", endless);
+                if (endless) {
+                    messageOverlay.show(root, "WAVE " + (level[0] - 1) + " CLEARED!", "Press ENTER to play next wave", levelScreen.getScaledHeight()*0.35, levelScreen.getScaledHeight()*0.425);
+                } else {
+                    messageOverlay.show(root, "YOU WIN!", "Press ENTER to play next level", levelScreen.getScaledHeight()*0.35, levelScreen.getScaledHeight()*0.425);
+                }
+                soundEngine.playMusic("LevelCompleted.mp3", false, null); //playing level complete sound
+                levelScreen.prepareLevel(levelSpec(level[0]), assetLoader.getExecutor()); //the next level is prepared while the level complete music plays, so ENTER only swaps it in
                 levelComplete[0] = false;
             }
         });
         root.setOnKeyReleased(e -> {
             switch (e.getCode()) {
+                case F3: //showing or hiding the frame times
+                    performanceMonitor.toggleOverlay();
+                    break;
                 case ESCAPE: //checking if escape is pressed
-                    System.out.println("ESCAPE from LevelScreen");
-                    root.getChildren().clear();
+                    GameLog.debug("input.key", "screen", "level", "key", "ESCAPE");
+                    GameEvents.SceneTransition transition = new GameEvents.SceneTransition();
+                    transition.begin();
+                    levelScreen.stopAnimation(); //stopping the game loop of the level that is left, the level screen is kept to be reused
+                    if (replayRecorder != null) {
+                        replayRecorder.close(); //the game is left, a new game starts a new recording
+                    }
+                    recordScore(); //a game that is left is a play too
+                    messageOverlay.hide();
                     StackPane titleRoot = new StackPane();
                     mainStage.setScene(new TitleScreen(titleRoot, SCALE).getThisScene());
                     mainStage.getScene().setCursor(ImageCursor.DEFAULT);
                     mainStage.show();
                     titleRoot.requestFocus();
                     TitleScreenEventHandler(mainStage);
+                    commitTransition(transition, "level", "title", false);
                     break;
                 case ENTER: //checking if enter is pressed
-                    System.out.println("ENTER from LevelScreen");
+                    GameLog.debug("input.key", "screen", "level", "key", "ENTER");
                     if (levelScreen.getDuckCount() == 0 && gameComplete[0]) { //checking if there are no ducks left and if game is complete
-                        System.out.println("Enter pressed and game complete");
-                        level[0] = 1;
-                        root.getChildren().clear();
-                        mediaPlayer.stop();
-                        StackPane newGameRoot = new StackPane();
-                        mainStage.setScene(new LevelScreen(newGameRoot, backgroundImage, foregroundImage, SCALE, 1).getThisScene()); //starting a new game
+                        GameLog.info("game.restart", "reason", "complete");
+                        soundEngine.stopMusic();
                         gameComplete[0] = false;
-                        mainStage.getScene().setCursor(new ImageCursor(crosshair));
-                        mainStage.show();
-                        newGameRoot.requestFocus();
-                        LevelScreenEventHandler(mainStage, 1);
+                        startLevel(mainStage, 1); //starting a new game
                     } else if (levelScreen.getDuckCount() == 0) { //checking if there are no ducks left and if level is complete
-                        System.out.println("Enter pressed and level complete");
-                        root.getChildren().clear();
-                        mediaPlayer.stop();
-                        StackPane newLevelRoot = new StackPane();
-                        mainStage.setScene(new LevelScreen(newLevelRoot, backgroundImage, foregroundImage, SCALE, level[0]).getThisScene()); //starting the next level
-                        mainStage.getScene().setCursor(new ImageCursor(crosshair));
-                        mainStage.show();
-                        newLevelRoot.requestFocus();
-                        LevelScreenEventHandler(mainStage, level[0]);
+                        GameLog.info("level.next", "level", level[0]);
+                        soundEngine.stopMusic();
+                        startLevel(mainStage, level[0]); //starting the next level
                     } else if (gameOver[0]){ //checking if game is over
-                        System.out.println("Enter pressed and game over");
-                        root.getChildren().clear();
-                        mediaPlayer.stop();
-                        StackPane restartedGameRoot = new StackPane();
-                        mainStage.setScene(new LevelScreen(restartedGameRoot, backgroundImage, foregroundImage, SCALE, 1).getThisScene()); //restarting the game
-                        mainStage.getScene().setCursor(new ImageCursor(crosshair));
-                        mainStage.show();
-                        restartedGameRoot.requestFocus();
-                        LevelScreenEventHandler(mainStage, 1);
+                        GameLog.info("game.restart", "reason", "game over");
+                        soundEngine.stopMusic();
+                        gameOver[0] = false;
+                        startLevel(mainStage, 1); //restarting the game
                     }
                     else {
-                        System.out.println("Enter pressed but level not complete"); //checking if enter is pressed but level is not complete
+                        GameLog.debug("input.ignored", "key", "ENTER"); //checking if enter is pressed but level is not complete
+                    }
+                    break;
+            }
+        });
+    }
+
+    /**
+     * Starts a level on the level screen and sets the scene to it. <br>
+     * The level screen, its ducks and the message overlay are reused between levels, so a level transition
+     * resets them instead of building a new scene graph. A new level screen is only created when there is none yet
+     * or the background has been changed on the options screen. <br>
+     * The memory allocated by the transition is printed, to keep an eye on the garbage created between levels. <br>
+     * In the endless mode the level is a wave, which is generated when it is started and is not recorded in a replay.
+     * @param mainStage the main stage of the application
+     * @param level the level or wave to be started
+     */
+    private void startLevel(Stage mainStage, int level) {
+        GameEvents.SceneTransition transition = new GameEvents.SceneTransition();
+        transition.begin();
+        String from = mainStage.getScene() == levelScreen ? "level" : "options";
+        boolean reused = levelScreen != null;
+        long allocatedBefore = AllocationMeter.getAllocatedBytes();
+        if (level == 1) { //a new game
+            recordScore();
+            gameScore = 0;
+            gameDucks = 0;
+        }
+        if (messageOverlay == null) {
+            messageOverlay = new MessageOverlay(SCALE);
+        }
+        messageOverlay.hide();
+        String background = backgroundImage.getImage().getUrl();
+        if (levelScreen == null || !background.equals(levelScreenBackground)) { //creating the level screen for the chosen background
+            if (levelScreen != null) {
+                levelScreen.stopAnimation();
+                levelScreen.releaseDucks(); //the ducks of the old level screen are reused by the new one
+            }
+            levelScreen = new LevelScreen(new StackPane(), backgroundImage, foregroundImage, SCALE, levelSpec(level), CANVAS_RENDERING);
+            levelScreenBackground = background;
+            reused = false;
+        } else {
+            levelScreen.loadLevel(levelSpec(level)); //resetting the level screen for the level
+        }
+        if (crosshair != levelScreenCrosshair) { //the cursor is only created again when the crosshair is changed
+            levelScreen.setCursor(new ImageCursor(crosshair));
+            levelScreenCrosshair = crosshair;
+        }
+        if (endless) { //the replays only hold the levels of the game
+            if (replayRecorder != null) {
+                replayRecorder.close();
+                replayRecorder = null;
+            }
+        } else {
+            if (level == 1 || replayRecorder == null) { //every new game is recorded to its own replay file
+                if (replayRecorder != null) {
+                    replayRecorder.close();
+                }
+                replayRecorder = new ReplayRecorder(SCALE, levelScreen.getSimulation().getSceneWidth(), levelScreen.getSimulation().getSceneHeight(), GameRandom.getSeed());
+            }
+            replayRecorder.recordLevel(level, levelScreen.getSimulation().getSeed());
+        }
+        if (performanceMonitor == null) { //the level was started before the first frame of the title screen
+            performanceMonitor = new PerformanceMonitor(SCALE, CANVAS_RENDERING ? "canvas" : "nodes", new File("../logs/performance.csv"));
+        }
+        levelScreen.getGameLoop().setPerformanceMonitor(performanceMonitor);
+        performanceMonitor.setInputLatency(levelScreen.getInputQueue().getLatencyHistogram());
+        performanceMonitor.attach((StackPane) levelScreen.getRoot());
+        if (mainStage.getScene() != levelScreen) {
+            mainStage.setScene(levelScreen);
+            mainStage.show();
+        }
+        levelScreen.getRoot().requestFocus();
+        LevelScreenEventHandler(mainStage, level);
+        long allocatedBytes = AllocationMeter.getAllocatedBytes() - allocatedBefore;
+        GameLog.info("level.transition", "level", level, "allocatedKb", allocatedBytes / 1024, "reusedScreen", reused);
+        commitTransition(transition, from, "level", reused);
+        levelEndedEvent = new GameEvents.LevelEnded();
+        levelEndedEvent.level = level;
+        levelEndedEvent.begin(); //the duration of the event is the time the level is played
+    }
+
+    /**
+     * Returns the description of a level of the game, or of a wave in the endless mode
+     * @param level the level or wave number
+     * @return the description of the level or wave
+     */
+    private LevelSpec levelSpec(int level) {
+        if (!endless) {
+            return LevelSpec.forLevel(level);
+        }
+        if (waveGenerator == null) {
+            waveGenerator = new WaveGenerator(WAVE_BUDGET);
+        }
+        return waveGenerator.getWave(level);
+    }
+
+    /**
+     * Returns the score store, and starts opening it on the asset loader thread if it is not opened yet.
+     * Opening the store can cut off a partly written play and rebuild the index, so it is not done on the JavaFX thread.
+     * @return the future of the score store, completed after the plays recorded so far
+     */
+    private CompletableFuture<ScoreStore> getScoreStore() {
+        if (scoreStore == null) {
+            if (assetLoader == null) {
+                assetLoader = new AssetLoader(SCALE);
+            }
+            scoreStore = CompletableFuture.supplyAsync(() -> new ScoreStore(new File("../scores"), TOP_SCORES), assetLoader.getExecutor());
+        }
+        return scoreStore;
+    }
+
+    /**
+     * Records the score of the game in progress, when the game is over, completed or left.
+     * A game in which no duck was shot is not recorded.
+     */
+    private void recordScore() {
+        if (gameScore > 0) {
+            ScoreStore.Mode mode = endless ? ScoreStore.Mode.ENDLESS : ScoreStore.Mode.LEVELS;
+            int score = gameScore;
+            int ducks = gameDucks;
+            long time = System.currentTimeMillis();
+            scoreStore = getScoreStore().thenApply(store -> { //the play is recorded once the store is open, before the next uses of the store
+                store.record(mode, score, ducks, time);
+                return store;
+            });
+            GameLog.info("score.recorded", "score", gameScore, "endless", endless);
+        }
+        gameScore = -1;
+    }
+
+    /**
+     * Shows the high scores on the title screen, at once if the score store is open,
+     * otherwise when it is opened, if the title screen is still shown
+     * @param mainStage the main stage of the application
+     */
+    private void showLeaderboard(Stage mainStage) {
+        CompletableFuture<ScoreStore> store = getScoreStore();
+        if (store.isDone()) {
+            if (mainStage.getScene() instanceof TitleScreen) {
+                showLeaderboard((TitleScreen) mainStage.getScene(), store.join());
+            }
+            return;
+        }
+        store.thenAccept(openStore -> Platform.runLater(() -> {
+            if (mainStage.getScene() instanceof TitleScreen) {
+                showLeaderboard((TitleScreen) mainStage.getScene(), openStore);
+            }
+        }));
+    }
+
+    /**
+     * Shows the 3 best scores of all time and the best score of the day of every mode on the title screen
+     * @param titleScreen the title screen
+     * @param store the score store
+     */
+    private void showLeaderboard(TitleScreen titleScreen, ScoreStore store) {
+        long now = System.currentTimeMillis();
+        StringBuilder leaderboard = new StringBuilder();
+        for (ScoreStore.Mode mode : ScoreStore.Mode.values()) {
+            List<ScoreStore.Score> best = store.getTopAllTime(mode);
+            if (best.isEmpty()) {
+                continue;
+            }
+            leaderboard.append('\n').append(mode.name());
+            for (int i = 0; i < Math.min(3, best.size()); i++) {
+                leaderboard.append("  ").append(best.get(i).getScore());
+            }
+            List<ScoreStore.Score> today = store.getTopDaily(mode, now);
+            if (!today.isEmpty()) {
+                leaderboard.append("   TODAY ").append(today.get(0).getScore());
+            }
+        }
+        titleScreen.showLeaderboard(leaderboard.length() == 0 ? "" : "HIGH SCORES" + leaderboard);
+    }
+
+    /**
+     * Starts the flock mode and sets the scene to it. A new flock screen is created every time the mode is started,
+     * with the background, foreground and crosshair chosen on the options screen.
+     * @param mainStage the main stage of the application
+     */
+    private void startFlock(Stage mainStage) {
+        GameEvents.SceneTransition transition = new GameEvents.SceneTransition();
+        transition.begin();
+        if (messageOverlay == null) {
+            messageOverlay = new MessageOverlay(SCALE);
+        }
+        messageOverlay.hide();
+        flockScreen = new FlockScreen(new StackPane(), backgroundImage, foregroundImage, SCALE, FLOCK_SIZE);
+        flockScreen.setCursor(new ImageCursor(crosshair));
+        if (performanceMonitor == null) { //the flock mode was started before the first frame of the title screen
+            performanceMonitor = new PerformanceMonitor(SCALE, CANVAS_RENDERING ? "canvas" : "nodes", new File("../logs/performance.csv"));
+        }
+        flockScreen.setPerformanceMonitor(performanceMonitor);
+        performanceMonitor.setInputLatency(flockScreen.getInputQueue().getLatencyHistogram());
+        performanceMonitor.attach((StackPane) flockScreen.getRoot());
+        mainStage.setScene(flockScreen);
+        mainStage.show();
+        flockScreen.getRoot().requestFocus();
+        FlockScreenEventHandler(mainStage);
+        commitTransition(transition, "options", "flock", false);
+    }
+
+    /**
+     * Event handler method for the flock mode scene. <br>
+     * The mouse presses are queued as shots and handled by the loop of the flock screen, there is no limit of ammo. <br>
+     * When all the ducks are shot, the ENTER key starts a new flock. The ESCAPE key returns to the title screen.
+     * @param mainStage the main stage of the application, its scene is the flock screen
+     */
+    private void FlockScreenEventHandler(Stage mainStage) {
+        StackPane root = (StackPane) flockScreen.getRoot();
+        root.setOnMousePressed(e -> {
+            double x = e.getX() + crosshair.getWidth()/2; //the center of the crosshair
+            double y = e.getY() + crosshair.getHeight()/2;
+            flockScreen.getInputQueue().offer(x, y, System.nanoTime());
+        });
+        flockScreen.setShotHandler((x, y) -> {
+            FlockSimulation simulation = flockScreen.getSimulation();
+            if (simulation.getFlyingCount() == 0) {
+                return;
+            }
+            soundEngine.playEffect("Gunshot.mp3");
+            int hits = simulation.shoot(x, y);
+            if (hits > 0) { //a single falling sound, however many ducks are hit
+                soundEngine.playEffect("DuckFalls.mp3");
+                flockScreen.updateDucksText();
+            }
+            if (hits > 0 && simulation.getFlyingCount() == 0) {
+                GameLog.info("flock.cleared", "ducks", simulation.getDuckCount(), "steps", simulation.getTickCount());
+                messageOverlay.show(root, "FLOCK CLEARED!", "Press ENTER to play again\nPress ESC to exit", flockScreen.getScaledHeight()*0.35, flockScreen.getScaledHeight()*0.35 + 20* SCALE);
+                soundEngine.playMusic("GameCompleted.mp3", false, null);
+            }
+        });
+        root.setOnKeyReleased(e -> {
+            switch (e.getCode()) {
+                case F3: //showing or hiding the frame times
+                    performanceMonitor.toggleOverlay();
+                    break;
+                case ESCAPE:
+                    GameLog.debug("input.key", "screen", "flock", "key", "ESCAPE");
+                    GameEvents.SceneTransition transition = new GameEvents.SceneTransition();
+                    transition.begin();
+                    flockScreen.stopAnimation();
+                    messageOverlay.hide();
+                    soundEngine.stopMusic();
+                    StackPane titleRoot = new StackPane();
+                    mainStage.setScene(new TitleScreen(titleRoot, SCALE).getThisScene());
+                    mainStage.getScene().setCursor(ImageCursor.DEFAULT);
+                    mainStage.show();
+                    titleRoot.requestFocus();
+                    TitleScreenEventHandler(mainStage);
+                    commitTransition(transition, "flock", "title", false);
+                    break;
+                case ENTER:
+                    GameLog.debug("input.key", "screen", "flock", "key", "ENTER");
+                    if (flockScreen.getSimulation().getFlyingCount() == 0) { //a new flock once the flock is cleared
+                        soundEngine.stopMusic();
+                        messageOverlay.hide();
+                        flockScreen.newFlock(GameRandom.nextSeed());
+                        root.requestFocus();
                     }
                     break;
             }
         });
     }
 
+    /**
+     * Commits the flight recorder event of a scene transition
+     * @param transition the event, begun before the new scene was created
+     * @param from the name of the scene that is left
+     * @param to the name of the scene that is shown
+     * @param reused whether the shown scene was reused instead of being created
+     */
+    private static void commitTransition(GameEvents.SceneTransition transition, String from, String to, boolean reused) {
+        transition.from = from;
+        transition.to = to;
+        transition.reused = reused;
+        transition.commit();
+    }
+
+    /**
+     * Commits the flight recorder event of the current level when the level is completed or failed, and logs the latency of its shots
+     * @param outcome complete or failed
+     */
+    private void commitLevelEnded(String outcome) {
+        if (levelEndedEvent == null) {
+            return;
+        }
+        LatencyHistogram latency = levelScreen.getInputQueue().getLatencyHistogram();
+        GameLog.info("input.latency", "shots", latency.getCount(), "p50Us", latency.getPercentile(50) / 1000, "p99Us", latency.getPercentile(99) / 1000);
+        levelEndedEvent.outcome = outcome;
+        levelEndedEvent.ammoLeft = levelScreen.getAmmoCount();
+        levelEndedEvent.commit();
+        levelEndedEvent = null;
+    }
+
+    /**
+     * Releases the sounds of the game, stops the asset loader, and closes the replay, the scores, the performance samples and the game log when the application is closed
+     */
+    @Override
+    public void stop() {
+        if (replayRecorder != null) {
+            replayRecorder.close();
+        }
+        recordScore(); //the game in progress is a play too
+        if (scoreStore != null) {
+            scoreStore.join().close(); //waiting for the store to be opened and the last play to be recorded
+        }
+        if (soundEngine != null) {
+            soundEngine.dispose();
+        }
+        if (assetLoader != null) {
+            assetLoader.shutdown();
+        }
+        if (performanceMonitor != null) {
+            performanceMonitor.close();
+        }
+        GameLog.shutdown(); //writing the events that are still in the log buffer
+    }
+
     /**
      * Sets the scale of the game
      * @param scale the scale of the game visuals
@@ -396,6 +768,13 @@ public class DuckHunt extends Application {
     public static void setVolume(Double volume) {
         VOLUME = volume;
     }
+    /**
+     * Sets whether the levels are drawn into a canvas instead of a node for every duck
+     * @param canvasRendering true to draw the levels into a canvas
+     */
+    public static void setCanvasRendering(boolean canvasRendering) {
+        CANVAS_RENDERING = canvasRendering;
+    }
     /**
      * Gets the volume of the game
      * @return the volume of the game
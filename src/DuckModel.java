@@ -0,0 +1,401 @@
+/**
+ * DuckModel class
+ * This class holds the simulation state of a duck in plain fields: position, speed, facing, rotation and animation frame.
+ * It contains the flight and falling rules of the duck and does not depend on JavaFX,
+ * so it can be stepped without a running toolkit, for example in tests and tools.
+ * The Duck class renders this state to an ImageView.
+ */
+public class DuckModel {
+    public static final double FLYING_INTERVAL = 0.15; // the flying speeds are given per this many seconds
+    public static final double FALLING_INTERVAL = 0.1; // the falling speed is given per this many seconds
+    private boolean movesDiagonal;
+    private double sceneWidth;
+    private double sceneHeight;
+    private double[] frameWidths; // the widths of the flying frames followed by the falling frames
+    private double[] frameHeights; // the heights of the flying frames followed by the falling frames
+    private int flyingFrameCount;
+    private double x;
+    private double y;
+    private double xSpeed;
+    private double ySpeed;
+    private double facing; // 1 if the duck faces right, -1 if it faces left
+    private double rotation; // the rotation of the duck in degrees
+    private int frameIndex; // the index of the shown frame, falling frames come after the flying frames
+    private boolean isShot;
+    private double frameTimer; // time since the last wing flap, in seconds
+    private double zigZagTimer; // time since the last vertical direction change of a horizontally moving duck, in seconds
+    private int upOrDown; // whether the duck moves up or down, alternating every flying interval
+
+    /**
+     * This constructor creates the model of a duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @param frameWidths The widths of the flying frames followed by the falling frames.
+     * @param frameHeights The heights of the flying frames followed by the falling frames.
+     * @param flyingFrameCount The number of flying frames.
+     * @param speed The distance the duck moves in a flying interval, on both axes.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     */
+    public DuckModel(boolean movesDiagonal, double[] frameWidths, double[] frameHeights, int flyingFrameCount, double speed, double sceneWidth, double sceneHeight) {
+        reset(movesDiagonal, frameWidths, frameHeights, flyingFrameCount, speed, sceneWidth, sceneHeight);
+    }
+
+    /**
+     * This method resets the model to a new duck, so that the model can be reused instead of creating a new one.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @param frameWidths The widths of the flying frames followed by the falling frames.
+     * @param frameHeights The heights of the flying frames followed by the falling frames.
+     * @param flyingFrameCount The number of flying frames.
+     * @param speed The distance the duck moves in a flying interval, on both axes.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     */
+    public void reset(boolean movesDiagonal, double[] frameWidths, double[] frameHeights, int flyingFrameCount, double speed, double sceneWidth, double sceneHeight) {
+        this.movesDiagonal = movesDiagonal;
+        this.frameWidths = frameWidths;
+        this.frameHeights = frameHeights;
+        this.flyingFrameCount = flyingFrameCount;
+        this.xSpeed = speed;
+        this.ySpeed = speed;
+        this.sceneWidth = sceneWidth;
+        this.sceneHeight = sceneHeight;
+        x = 0;
+        y = 0;
+        facing = 1;
+        rotation = 0;
+        frameIndex = 0;
+        isShot = false;
+        frameTimer = 0;
+        zigZagTimer = 0;
+        upOrDown = 0; // the level chooses whether the duck moves up or down first, with setMovesUpFirst
+    }
+
+    /**
+     * This method advances the duck by the given amount of simulation time.
+     * The speeds are distances per flying interval, so the duck covers the same distance per second
+     * in as many steps as the caller asks for.
+     * @param dt the simulation time step in seconds
+     */
+    public void step(double dt) {
+        if (isShot) { // the duck falls once it is shot
+            stepFalling(dt);
+            return;
+        }
+        frameTimer += dt;
+        while (frameTimer >= FLYING_INTERVAL) { // flap the wings every flying interval
+            frameTimer -= FLYING_INTERVAL;
+            frameIndex++;
+            if (frameIndex == flyingFrameCount) { // if the frame index is equal to the number of flying frames, reset it to 0
+                frameIndex = 0;
+            }
+        }
+        double stepFraction = dt / FLYING_INTERVAL; // the fraction of a flying interval covered in this step
+        if (movesDiagonal) {
+            stepDiagonal(stepFraction);
+        } else {
+            stepHorizontal(dt, stepFraction);
+        }
+    }
+
+    /**
+     * This method moves the duck diagonally, bouncing it off the edges of the scene.
+     * @param stepFraction the fraction of a flying interval covered in this step
+     */
+    private void stepDiagonal(double stepFraction) {
+        double width = getWidth();
+        double height = getHeight();
+        x += xSpeed * stepFraction; // move the duck horizontally
+        y -= ySpeed * stepFraction; // move the duck vertically
+        if (y < height/10) { // if the duck hits the top of the scene
+            ySpeed = -ySpeed; // reverse the vertical speed
+            y = height/10; // move the duck back into the scene to prevent it from getting stuck
+            if (xSpeed < 0) { // if the duck is moving left
+                facing = -1; // make the duck face left
+                rotation = -90; // rotate the duck 90 degrees
+            } else if (xSpeed > 0) { // if the duck is moving right
+                facing = 1; // make the duck face right
+                rotation = 90; // rotate the duck 90 degrees
+            }
+        }
+        if (y + height >= sceneHeight*0.99) { // if the duck hits the bottom of the scene
+            ySpeed = -ySpeed; // reverse the vertical speed
+            y = sceneHeight*0.99 - height; // move the duck back into the scene, to ensure it doesn't get stuck
+            if (xSpeed < 0) { // if the duck is moving left
+                facing = -1;
+                rotation = 0;
+            } else if (xSpeed > 0) { // if the duck is moving right
+                facing = 1;
+                rotation = 0;
+            }
+        }
+        if (x <= width/10) { // if the duck hits the left side of the scene
+            xSpeed = -xSpeed; // reverse the horizontal speed
+            x = width/10; // move the duck back into the scene, to ensure it doesn't get stuck
+            if (ySpeed > 0) { // if the duck is moving down
+                facing = 1;
+                rotation = 0;
+            } else if (ySpeed < 0) { // if the duck is moving up
+                facing = 1;
+                rotation = 90;
+            }
+        }
+        if (x + width >= sceneWidth) { // if the duck hits the right side of the scene
+            xSpeed = -xSpeed; // reverse the horizontal speed
+            x = sceneWidth - width; // move the duck back into the scene, to ensure it doesn't get stuck
+            if (ySpeed > 0) { // if the duck is moving down
+                facing = -1;
+                rotation = 0;
+            } else if (ySpeed < 0) { // if the duck is moving up
+                facing = -1;
+                rotation = -90;
+            }
+        }
+    }
+
+    /**
+     * This method moves the duck horizontally, zig-zagging up and down every flying interval.
+     * @param dt the simulation time step in seconds
+     * @param stepFraction the fraction of a flying interval covered in this step
+     */
+    private void stepHorizontal(double dt, double stepFraction) {
+        double width = getWidth();
+        x += xSpeed * stepFraction; // move the duck horizontally
+        if (upOrDown % 2 == 0) { // if the duck is moving up
+            y += ySpeed/2 * stepFraction;
+        } else { // if the duck is moving down
+            y -= ySpeed/2 * stepFraction;
+        }
+        zigZagTimer += dt;
+        while (zigZagTimer >= FLYING_INTERVAL) { // change the vertical direction every flying interval
+            zigZagTimer -= FLYING_INTERVAL;
+            upOrDown++; // increment the counter
+        }
+        // if the duck hits the right or left side of the scene
+        if (x > sceneWidth - width && xSpeed > 0 || x < width/10 && xSpeed < 0) {
+            xSpeed = -xSpeed; // reverse the horizontal speed
+            facing = -facing; // make the duck face the other way
+        }
+    }
+
+    /**
+     * This method makes the shot duck fall to the bottom of the scene.
+     * @param dt the simulation time step in seconds
+     */
+    private void stepFalling(double dt) {
+        frameTimer += dt;
+        while (frameTimer >= FALLING_INTERVAL) { // flap the wings every falling interval
+            frameTimer -= FALLING_INTERVAL;
+            if (frameIndex < flyingFrameCount) { // the first falling frame
+                frameIndex = flyingFrameCount;
+            } else if (frameIndex < frameWidths.length - 1) { // keep the last falling frame once it is reached
+                frameIndex++;
+            }
+        }
+        rotation = 0; // reset the rotation
+        y += Math.abs(ySpeed) * dt / FALLING_INTERVAL; // move the duck down
+        if (y > sceneHeight - getHeight() || y < 0) { // if the duck hits the bottom of the scene
+            ySpeed = 0;
+        }
+    }
+
+    /**
+     * This method sets the vertical direction a horizontally moving duck starts with
+     * @param movesUpFirst true if the duck moves up first, false if it moves down first
+     */
+    public void setMovesUpFirst(boolean movesUpFirst) {
+        upOrDown = movesUpFirst ? 0 : 1;
+    }
+
+    /**
+     * This method sets the position of the duck
+     * @param x the x coordinate of the top left corner of the duck
+     * @param y the y coordinate of the top left corner of the duck
+     */
+    public void setPosition(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * This method multiplies the speed of the duck
+     * @param speedMultiplier the speed multiplier of the duck
+     */
+    public void setSpeed(double speedMultiplier) {
+        xSpeed = speedMultiplier * xSpeed;
+        ySpeed = speedMultiplier * ySpeed;
+    }
+
+    /**
+     * This method returns the horizontal speed of the duck
+     * @return the horizontal speed of the duck, per flying interval
+     */
+    public double getSpeed() {
+        return xSpeed;
+    }
+
+    /**
+     * This method marks the duck as shot, the duck starts falling on the next step
+     * @param shot whether the duck is shot or not
+     */
+    public void setShot(boolean shot) {
+        if (shot && !isShot) { // the falling frames start on the next falling interval
+            frameTimer = 0;
+        }
+        isShot = shot;
+    }
+
+    /**
+     * This method returns the status of the duck
+     * @return whether the duck is shot or not
+     */
+    public boolean isShot() {
+        return isShot;
+    }
+
+    /**
+     * This method returns whether the shot duck has fallen to the bottom of the scene, where it stays until the model is reused
+     * @return true if the duck is shot and does not move anymore
+     */
+    public boolean hasLanded() {
+        return isShot && ySpeed == 0;
+    }
+
+    /**
+     * This method returns the motion of the duck
+     * @return true if the duck moves diagonally, false if it moves horizontally
+     */
+    public boolean isMovesDiagonal() {
+        return movesDiagonal;
+    }
+
+    /**
+     * This method checks whether a shot at the given point hits the duck, as it is rendered.
+     * A 1x1 shot hits the duck if it touches the bounds of the duck, and a duck that is already shot can not be hit again.
+     * @param px the x coordinate of the shot
+     * @param py the y coordinate of the shot
+     * @return true if the duck is hit, false otherwise
+     */
+    public boolean isHit(double px, double py) {
+        return !isShot && px >= getMinX() - 1 && px <= getMaxX() && py >= getMinY() - 1 && py <= getMaxY();
+    }
+
+    /**
+     * This method returns the left edge of the bounds of the duck, the frame is rotated around its center
+     * @return the smallest x coordinate of the duck
+     */
+    public double getMinX() {
+        return x + getWidth()/2 - getRotatedWidth()/2;
+    }
+
+    /**
+     * This method returns the top edge of the bounds of the duck, the frame is rotated around its center
+     * @return the smallest y coordinate of the duck
+     */
+    public double getMinY() {
+        return y + getHeight()/2 - getRotatedHeight()/2;
+    }
+
+    /**
+     * This method returns the right edge of the bounds of the duck
+     * @return the largest x coordinate of the duck
+     */
+    public double getMaxX() {
+        return getMinX() + getRotatedWidth();
+    }
+
+    /**
+     * This method returns the bottom edge of the bounds of the duck
+     * @return the largest y coordinate of the duck
+     */
+    public double getMaxY() {
+        return getMinY() + getRotatedHeight();
+    }
+
+    /**
+     * This method returns the width of the bounds of the duck, which is the height of the frame if it is rotated 90 degrees
+     * @return the width of the rotated frame
+     */
+    private double getRotatedWidth() {
+        return rotation == 0 ? getWidth() : getHeight();
+    }
+
+    /**
+     * This method returns the height of the bounds of the duck, which is the width of the frame if it is rotated 90 degrees
+     * @return the height of the rotated frame
+     */
+    private double getRotatedHeight() {
+        return rotation == 0 ? getHeight() : getWidth();
+    }
+
+    /**
+     * This method returns the x coordinate of the top left corner of the duck
+     * @return the x coordinate of the duck
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * This method returns the y coordinate of the top left corner of the duck
+     * @return the y coordinate of the duck
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * This method returns the width of the shown frame
+     * @return the width of the duck
+     */
+    public double getWidth() {
+        return frameWidths[frameIndex];
+    }
+
+    /**
+     * This method returns the height of the shown frame
+     * @return the height of the duck
+     */
+    public double getHeight() {
+        return frameHeights[frameIndex];
+    }
+
+    /**
+     * This method returns the horizontal facing of the duck
+     * @return 1 if the duck faces right, -1 if it faces left
+     */
+    public double getFacing() {
+        return facing;
+    }
+
+    /**
+     * This method returns the rotation of the duck
+     * @return the rotation of the duck in degrees
+     */
+    public double getRotation() {
+        return rotation;
+    }
+
+    /**
+     * This method returns the widths of the frames of the duck, so that they can be refilled when the model is reused
+     * @return the widths of the flying frames followed by the falling frames
+     */
+    public double[] getFrameWidths() {
+        return frameWidths;
+    }
+
+    /**
+     * This method returns the heights of the frames of the duck, so that they can be refilled when the model is reused
+     * @return the heights of the flying frames followed by the falling frames
+     */
+    public double[] getFrameHeights() {
+        return frameHeights;
+    }
+
+    /**
+     * This method returns the index of the shown frame
+     * @return the index of the frame, falling frames come after the flying frames
+     */
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+}
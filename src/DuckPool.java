@@ -0,0 +1,60 @@
+import java.util.ArrayDeque;
+
+/**
+ * This class is a process-wide pool of Duck objects.
+ * Ducks released at the end of a level are reset and handed out again for the next level,
+ * so their ImageViews are reused instead of being left to the garbage collector.
+ */
+public class DuckPool {
+    private static final ArrayDeque<Duck> freeDucks = new ArrayDeque<>();
+    private static long createdCount = 0;
+    private static long reusedCount = 0;
+
+    private DuckPool() {
+    }
+
+    /**
+     * This method returns a duck from the pool reset to the given properties, or a new duck if the pool is empty.
+     * The pool is not synchronized, it must be called on the JavaFX application thread.
+     * @param duckColor The color of the duck.
+     * @param scale The scale of the duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @param model The model the duck renders.
+     * @return the duck
+     */
+    public static Duck acquire(String duckColor, double scale, boolean movesDiagonal, DuckModel model) {
+        Duck duck = freeDucks.poll();
+        if (duck == null) {
+            createdCount++;
+            return new Duck(duckColor, scale, movesDiagonal, model);
+        }
+        reusedCount++;
+        duck.reset(duckColor, scale, movesDiagonal, model);
+        return duck;
+    }
+
+    /**
+     * This method returns a duck to the pool. The duck must not be used by the caller afterwards.
+     * It must be called on the JavaFX application thread.
+     * @param duck the duck that is no longer used
+     */
+    public static void release(Duck duck) {
+        freeDucks.push(duck);
+    }
+
+    /**
+     * This method returns the number of ducks created because the pool was empty
+     * @return the number of created ducks
+     */
+    public static long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * This method returns the number of ducks handed out from the pool
+     * @return the number of reused ducks
+     */
+    public static long getReusedCount() {
+        return reusedCount;
+    }
+}
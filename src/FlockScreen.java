@@ -0,0 +1,192 @@
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.layout.*;
+import javafx.scene.paint.Color;
+import javafx.scene.text.*;
+
+/**
+ * This class is the scene of the flock mode, where thousands of ducks fly as a flock and the player shoots into it.
+ * The flock is simulated by a FlockSimulation, which steers the ducks on all the cores. The GameLoop of the scene
+ * runs once per frame on the JavaFX thread, like the loop of a level: it handles the queued shots, advances the flock
+ * in fixed steps, and once the steps are done it draws the flock into a single canvas, like the CanvasRenderer draws a level.
+ * The render is the only place the state of the flock is handed to the JavaFX thread.
+ */
+public class FlockScreen extends Scene {
+    private final double scale;
+    private final double scaledWidth;
+    private final double scaledHeight;
+    private final int duckCount;
+    private final Canvas canvas;
+    private final GraphicsContext graphicsContext;
+    private final Image backgroundImage;
+    private final Image foregroundImage;
+    private final Image[][] frames = new Image[LevelSpec.COLORS.length][8]; // the 8 sprites of every color, by their number
+    private final Text ducksText;
+    private final InputQueue inputQueue = new InputQueue(); // the shots wait here for the loop
+    private final GameLoop loop;
+    private FlockSimulation simulation;
+
+    /**
+     * This constructor creates the scene of the flock mode and a flock.
+     * @param root The root pane of the scene.
+     * @param backgroundImage The background image.
+     * @param foregroundImage The foreground image, already scaled.
+     * @param scale The scale of the game visuals.
+     * @param duckCount The number of ducks in the flock.
+     */
+    public FlockScreen(StackPane root, BackgroundImage backgroundImage, Image foregroundImage, double scale, int duckCount) {
+        super(root);
+        this.scale = scale;
+        this.duckCount = duckCount;
+        root.setAlignment(Pos.TOP_LEFT);
+        GameLog.debug("screen.create", "screen", "flock");
+        scaledWidth = backgroundImage.getImage().getWidth() * scale;
+        scaledHeight = backgroundImage.getImage().getHeight() * scale;
+        this.backgroundImage = CanvasRenderer.prescale(backgroundImage.getImage(), scaledWidth, scaledHeight); // scaled once, copied on every frame
+        this.foregroundImage = foregroundImage;
+        root.setPrefSize(scaledWidth, scaledHeight);
+        for (int c = 0; c < LevelSpec.COLORS.length; c++) {
+            for (int n = 1; n <= 8; n++) {
+                frames[c][n - 1] = SpriteCache.getDuckFrame(LevelSpec.COLORS[c], n, scale * FlockSimulation.SPRITE_SCALE);
+            }
+        }
+        canvas = new Canvas(scaledWidth, scaledHeight);
+        graphicsContext = canvas.getGraphicsContext2D();
+        graphicsContext.setImageSmoothing(false); // the sprites are pixel art
+        root.getChildren().add(canvas);
+        Color color = Color.rgb(241, 159, 20);
+        Text modeText = new Text("Flock Mode");
+        modeText.setFill(color);
+        modeText.setFont(Font.font("Arial", FontWeight.BOLD, 7.5*scale));
+        ducksText = new Text();
+        ducksText.setFill(color);
+        ducksText.setFont(Font.font("Arial", FontWeight.BOLD, 7.5*scale));
+        HBox topHBox = new HBox();
+        topHBox.setAlignment(Pos.TOP_RIGHT);
+        topHBox.setPadding(new Insets(scaledHeight*0.01, scaledWidth*0.01, scaledHeight*0.01, scaledWidth*0.01));
+        topHBox.setSpacing(scaledWidth*0.25);
+        topHBox.getChildren().addAll(new Text(" "), modeText, ducksText);
+        root.getChildren().add(topHBox);
+        loop = new GameLoop(FlockSimulation.STEP, new GameLoop.Steppable() {
+            @Override
+            public void tick() {
+                simulation.tick(); // every step runs on all the cores and is done when tick returns
+            }
+
+            @Override
+            public int getEntityCount() {
+                return simulation.getFlyingCount();
+            }
+        }, this::render);
+        newFlock(GameRandom.nextSeed());
+    }
+
+    /**
+     * This method replaces the flock with a new one and starts the loop if it is not running.
+     * @param seed The seed of the flock, the same seed gives the same flock.
+     */
+    public void newFlock(long seed) {
+        simulation = new FlockSimulation(scale, scaledWidth, scaledHeight, duckCount, seed);
+        inputQueue.clear(); // the shots at the previous flock are not carried over
+        inputQueue.getLatencyHistogram().reset();
+        updateDucksText();
+        render(); // the first frame is drawn before the loop runs
+        GameLog.info("flock.start", "ducks", duckCount, "seed", seed);
+        loop.start();
+    }
+
+    /**
+     * This method draws the background, the flock and the foreground into the canvas.
+     */
+    private void render() {
+        GraphicsContext gc = graphicsContext;
+        gc.drawImage(backgroundImage, 0, 0); // the background covers the previous frame
+        for (int i = 0; i < duckCount; i++) {
+            byte state = simulation.getState(i);
+            if (state == FlockSimulation.GONE) {
+                continue;
+            }
+            int number;
+            double facing = 1;
+            if (state == FlockSimulation.FLYING) {
+                int frame = (int) (simulation.getAnimationTime(i) / DuckModel.FLYING_INTERVAL) % DuckFrames.FLYING_FRAME_COUNT;
+                double xSpeed = simulation.getXSpeed(i);
+                double ySpeed = simulation.getYSpeed(i);
+                boolean climbing = ySpeed < 0 && -ySpeed > Math.abs(xSpeed); // the diagonal frames fly upwards
+                number = DuckFrames.getFrameNumber(climbing, frame);
+                facing = xSpeed < 0 ? -1 : 1;
+            } else {
+                number = DuckFrames.getFrameNumber(false, simulation.getFallTime(i) < DuckModel.FALLING_INTERVAL ? DuckFrames.FLYING_FRAME_COUNT : DuckFrames.FRAME_COUNT - 1);
+            }
+            Image image = frames[simulation.getColor(i)][number - 1];
+            double width = image.getWidth();
+            double height = image.getHeight();
+            if (facing == 1) {
+                gc.drawImage(image, simulation.getX(i) - width / 2, simulation.getY(i) - height / 2);
+            } else { // flip the sprite around its center
+                gc.setTransform(-1, 0, 0, 1, simulation.getX(i), simulation.getY(i));
+                gc.drawImage(image, -width / 2, -height / 2);
+                gc.setTransform(1, 0, 0, 1, 0, 0);
+            }
+        }
+        gc.drawImage(foregroundImage, 0, 0);
+    }
+
+    /**
+     * This method updates the text of the ducks left to the flying ducks of the flock
+     */
+    public void updateDucksText() {
+        ducksText.setText("Ducks Left: " + simulation.getFlyingCount());
+    }
+
+    /**
+     * This method sets the handler the loop gives the queued shots to at the start of every frame
+     * @param shotHandler the handler of the shots
+     */
+    public void setShotHandler(InputQueue.ShotHandler shotHandler) {
+        loop.setInput(inputQueue, shotHandler);
+    }
+
+    /**
+     * This method sets the monitor that collects the frame times of the loop
+     * @param performanceMonitor the performance monitor, or null to not collect the frame times
+     */
+    public void setPerformanceMonitor(PerformanceMonitor performanceMonitor) {
+        loop.setPerformanceMonitor(performanceMonitor);
+    }
+
+    /**
+     * This method returns the queue of the shots of the flock
+     * @return the input queue that the loop handles at the start of every frame
+     */
+    public InputQueue getInputQueue() {
+        return inputQueue;
+    }
+
+    /**
+     * This method returns the simulation of the flock
+     * @return the simulation of the flock that the scene renders
+     */
+    public FlockSimulation getSimulation() {
+        return simulation;
+    }
+
+    /**
+     * This method stops the animation of the flock, it should be called when the flock mode is left
+     */
+    public void stopAnimation() {
+        loop.stop();
+    }
+
+    /**
+     * This method returns the scaled height of the scene
+     * @return the scaled height of the scene
+     */
+    public double getScaledHeight() {
+        return scaledHeight;
+    }
+}
@@ -0,0 +1,433 @@
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * This class simulates the flock mode without JavaFX: thousands of ducks that steer like boids instead of bouncing
+ * off the edges of the scene. Every duck steers towards the center of its neighbors (cohesion), away from the neighbors
+ * that are too close (separation) and towards the average heading of its neighbors (alignment), and turns back
+ * before it leaves the sky.
+ * The neighbors are found with a SpatialGrid of the duck positions, with cells as large as the neighbor radius,
+ * so a duck only looks at the 3x3 cells around its own.
+ * The state is kept in arrays of primitives, one array for every field. A step reads the positions and velocities
+ * of the previous step and writes the next ones into a second set of arrays, so the ducks are steered in parallel
+ * without locks, in blocks on the common fork-join pool, and the result does not depend on the number of threads.
+ * The renderer reads the arrays on the JavaFX thread between the steps.
+ */
+public class FlockSimulation {
+    public static final double STEP = LevelSimulation.STEP; // the fixed simulation step, in seconds
+    public static final byte FLYING = 0; // the state of a duck that flies with the flock
+    public static final byte FALLING = 1; // the state of a shot duck, until it falls behind the foreground
+    public static final byte GONE = 2; // the state of a duck that has fallen behind the foreground
+    public static final double SPRITE_SCALE = 0.25; // the ducks of the flock are far away, so they are a quarter of the size of the ducks of the levels
+    private static final int BLOCK_SIZE = 256; // the number of ducks steered by one task of the parallel step
+    private static final int MAX_NEIGHBORS = 16; // the neighbors a duck steers by, so the dense parts of the flock do not cost more
+    private static final double COHESION = 4.0; // the acceleration towards the center of the neighbors, per unit of distance
+    private static final double ALIGNMENT = 2.0; // the acceleration towards the average velocity of the neighbors, per unit of velocity
+    private static final double EDGE = 40.0; // the acceleration back into the sky, per unit of distance past the margin
+    private static final double CENTER = 0.3; // the acceleration towards the middle of the sky, per unit of distance, so the flock does not follow the edges
+    private static final int[] NEIGHBOR_CELLS = {0, 0, -1, -1, 0, -1, 1, -1, -1, 0, 1, 0, -1, 1, 0, 1, 1, 1}; // the own cell first
+    private final double scale;
+    private final double sceneWidth;
+    private final double sceneHeight;
+    private final int duckCount;
+    private final SpatialGrid grid;
+    private final double neighborRadius;
+    private final double separationRadius;
+    private final double separation; // the acceleration away from a neighbor that touches the duck
+    private final double minSpeed;
+    private final double maxSpeed;
+    private final double fallSpeed;
+    private final double margin; // the distance from the edges of the sky where the ducks start to turn back
+    private final double skyBottom; // the lowest point of the sky, the foreground is below it
+    private final double[] hitHalfWidths = new double[LevelSpec.COLORS.length]; // half the size of the flying frames of every color
+    private final double[] hitHalfHeights = new double[LevelSpec.COLORS.length];
+    private double[] xs; // the center of every duck
+    private double[] ys;
+    private double[] xSpeeds; // the velocity of every duck, in pixels per second
+    private double[] ySpeeds;
+    private double[] nextXs; // the state written by the current step
+    private double[] nextYs;
+    private double[] nextXSpeeds;
+    private double[] nextYSpeeds;
+    private final byte[] states;
+    private final byte[] colors; // the index of the color of every duck in LevelSpec.COLORS
+    private final double[] phases; // the animation time every duck starts at, so the ducks do not flap their wings together
+    private final double[] fallTimes; // the time since every duck was shot
+    private final int[] hits; // the ducks hit by the last shot
+    private final IntConsumer steerBlock = this::steerBlock; // created once, the step does not create it again
+    private int hitCount;
+    private int flyingCount;
+    private long tickCount;
+    private boolean parallel = true;
+
+    /**
+     * This constructor creates a flock in the sky, with random positions, headings and colors.
+     * @param scale The scale of the game visuals.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     * @param duckCount The number of ducks in the flock.
+     * @param seed The seed every random choice of the flock is drawn from.
+     */
+    public FlockSimulation(double scale, double sceneWidth, double sceneHeight, int duckCount, long seed) {
+        this.scale = scale;
+        this.sceneWidth = sceneWidth;
+        this.sceneHeight = sceneHeight;
+        this.duckCount = duckCount;
+        neighborRadius = 10 * scale; // larger than half a duck, so a shot only needs the 3x3 cells around it too
+        separationRadius = 5 * scale;
+        separation = 40 * scale;
+        minSpeed = 15 * scale;
+        maxSpeed = 35 * scale;
+        fallSpeed = 50 * scale;
+        margin = 30 * scale;
+        skyBottom = sceneHeight * 0.7;
+        grid = new SpatialGrid(sceneWidth, sceneHeight, neighborRadius);
+        double[] widths = new double[DuckFrames.FRAME_COUNT];
+        double[] heights = new double[DuckFrames.FRAME_COUNT];
+        for (int c = 0; c < LevelSpec.COLORS.length; c++) {
+            DuckFrames.getFrameSizes(LevelSpec.COLORS[c], false, scale * SPRITE_SCALE, widths, heights);
+            hitHalfWidths[c] = widths[0] / 2;
+            hitHalfHeights[c] = heights[0] / 2;
+        }
+        xs = new double[duckCount];
+        ys = new double[duckCount];
+        xSpeeds = new double[duckCount];
+        ySpeeds = new double[duckCount];
+        nextXs = new double[duckCount];
+        nextYs = new double[duckCount];
+        nextXSpeeds = new double[duckCount];
+        nextYSpeeds = new double[duckCount];
+        states = new byte[duckCount];
+        colors = new byte[duckCount];
+        phases = new double[duckCount];
+        fallTimes = new double[duckCount];
+        hits = new int[duckCount];
+        Random random = new Random(seed);
+        for (int i = 0; i < duckCount; i++) {
+            xs[i] = margin + random.nextDouble() * (sceneWidth - 2 * margin);
+            ys[i] = margin + random.nextDouble() * (skyBottom - 2 * margin);
+            double heading = random.nextDouble() * 2 * Math.PI;
+            double speed = minSpeed + random.nextDouble() * (maxSpeed - minSpeed);
+            xSpeeds[i] = Math.cos(heading) * speed;
+            ySpeeds[i] = Math.sin(heading) * speed;
+            colors[i] = (byte) random.nextInt(LevelSpec.COLORS.length);
+            phases[i] = random.nextDouble() * DuckModel.FLYING_INTERVAL * DuckFrames.FLYING_FRAME_COUNT;
+        }
+        flyingCount = duckCount;
+        rebuildGrid();
+    }
+
+    /**
+     * This method advances the flock by one simulation step. The ducks are steered in blocks, in parallel unless it is
+     * turned off, the new state is swapped in once all the blocks are done, and the grid is rebuilt on the calling thread
+     * for the next step and the shots.
+     */
+    public void tick() {
+        int blockCount = (duckCount + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        if (parallel) {
+            IntStream.range(0, blockCount).parallel().forEach(steerBlock);
+        } else {
+            for (int block = 0; block < blockCount; block++) {
+                steerBlock(block);
+            }
+        }
+        double[] swap = xs; // the next state becomes the current state
+        xs = nextXs;
+        nextXs = swap;
+        swap = ys;
+        ys = nextYs;
+        nextYs = swap;
+        swap = xSpeeds;
+        xSpeeds = nextXSpeeds;
+        nextXSpeeds = swap;
+        swap = ySpeeds;
+        ySpeeds = nextYSpeeds;
+        nextYSpeeds = swap;
+        rebuildGrid();
+        tickCount++;
+    }
+
+    /**
+     * This method rebuilds the spatial grid with the positions of the flying ducks.
+     */
+    private void rebuildGrid() {
+        grid.clear();
+        for (int i = 0; i < duckCount; i++) {
+            if (states[i] == FLYING) {
+                grid.insert(i, xs[i], ys[i], xs[i], ys[i]);
+            }
+        }
+    }
+
+    /**
+     * This method steers a block of ducks. Every block writes only the next state of its own ducks,
+     * so the blocks can run at the same time.
+     * @param block the index of the block
+     */
+    private void steerBlock(int block) {
+        int end = Math.min(duckCount, (block + 1) * BLOCK_SIZE);
+        for (int i = block * BLOCK_SIZE; i < end; i++) {
+            if (states[i] == FLYING) {
+                steer(i);
+            } else {
+                fall(i);
+            }
+        }
+    }
+
+    /**
+     * This method steers a flying duck by its neighbors and moves it.
+     * @param i the index of the duck
+     */
+    private void steer(int i) {
+        double x = xs[i];
+        double y = ys[i];
+        double xSpeed = xSpeeds[i];
+        double ySpeed = ySpeeds[i];
+        double offsetX = 0; // the sum of the offsets of the neighbors from the duck
+        double offsetY = 0;
+        double speedX = 0; // the sum of the velocities of the neighbors
+        double speedY = 0;
+        double awayX = 0; // the sum of the pushes away from the neighbors that are too close
+        double awayY = 0;
+        int neighbors = 0;
+        int column = grid.getColumn(x);
+        int row = grid.getRow(y);
+        double neighborRadius2 = neighborRadius * neighborRadius;
+        double separationRadius2 = separationRadius * separationRadius;
+        search:
+        for (int c = 0; c < NEIGHBOR_CELLS.length; c += 2) {
+            int cellColumn = column + NEIGHBOR_CELLS[c];
+            int cellRow = row + NEIGHBOR_CELLS[c + 1];
+            if (cellColumn < 0 || cellRow < 0 || cellColumn >= grid.getColumnCount() || cellRow >= grid.getRowCount()) {
+                continue;
+            }
+            for (int entry = grid.getFirstEntry(cellColumn, cellRow); entry != -1; entry = grid.getNextEntry(entry)) {
+                int j = grid.getEntryId(entry);
+                double dx = xs[j] - x;
+                double dy = ys[j] - y;
+                double distance2 = dx * dx + dy * dy;
+                if (j == i || distance2 >= neighborRadius2) {
+                    continue;
+                }
+                offsetX += dx;
+                offsetY += dy;
+                speedX += xSpeeds[j];
+                speedY += ySpeeds[j];
+                if (distance2 < separationRadius2 && distance2 > 0) { // the closer the neighbor, the harder the push
+                    double distance = Math.sqrt(distance2);
+                    double push = (separationRadius - distance) / (separationRadius * distance);
+                    awayX -= dx * push;
+                    awayY -= dy * push;
+                }
+                if (++neighbors == MAX_NEIGHBORS) {
+                    break search;
+                }
+            }
+        }
+        double xAcceleration = 0;
+        double yAcceleration = 0;
+        if (neighbors > 0) {
+            xAcceleration += COHESION * offsetX / neighbors + ALIGNMENT * (speedX / neighbors - xSpeed) + separation * awayX;
+            yAcceleration += COHESION * offsetY / neighbors + ALIGNMENT * (speedY / neighbors - ySpeed) + separation * awayY;
+        }
+        xAcceleration += CENTER * (sceneWidth / 2 - x);
+        yAcceleration += CENTER * (skyBottom / 2 - y);
+        if (x < margin) { // turn back before leaving the sky
+            xAcceleration += EDGE * (margin - x);
+        } else if (x > sceneWidth - margin) {
+            xAcceleration -= EDGE * (x - sceneWidth + margin);
+        }
+        if (y < margin) {
+            yAcceleration += EDGE * (margin - y);
+        } else if (y > skyBottom - margin) {
+            yAcceleration -= EDGE * (y - skyBottom + margin);
+        }
+        xSpeed += xAcceleration * STEP;
+        ySpeed += yAcceleration * STEP;
+        double speed = Math.sqrt(xSpeed * xSpeed + ySpeed * ySpeed);
+        if (speed > maxSpeed) {
+            xSpeed *= maxSpeed / speed;
+            ySpeed *= maxSpeed / speed;
+        } else if (speed < minSpeed) { // ducks do not hover
+            double factor = speed > 0 ? minSpeed / speed : 0;
+            xSpeed = speed > 0 ? xSpeed * factor : minSpeed;
+            ySpeed *= factor;
+        }
+        nextXs[i] = Math.min(sceneWidth, Math.max(0, x + xSpeed * STEP));
+        nextYs[i] = Math.min(skyBottom, Math.max(0, y + ySpeed * STEP));
+        nextXSpeeds[i] = xSpeed;
+        nextYSpeeds[i] = ySpeed;
+    }
+
+    /**
+     * This method moves a shot duck down until it is behind the foreground, and copies the state of a gone duck.
+     * @param i the index of the duck
+     */
+    private void fall(int i) {
+        nextXs[i] = xs[i];
+        nextXSpeeds[i] = 0;
+        nextYSpeeds[i] = 0;
+        if (states[i] == GONE) {
+            nextYs[i] = ys[i];
+            return;
+        }
+        fallTimes[i] += STEP;
+        nextYs[i] = ys[i] + fallSpeed * STEP;
+        if (nextYs[i] > sceneHeight * 0.85) { // the duck is behind the foreground
+            states[i] = GONE;
+        }
+    }
+
+    /**
+     * This method fires a shot at the flock, the flying ducks under the shot start falling.
+     * The indexes of the shot ducks are returned by getHit.
+     * @param x The x coordinate of the shot.
+     * @param y The y coordinate of the shot.
+     * @return the number of ducks hit by the shot
+     */
+    public int shoot(double x, double y) {
+        hitCount = 0;
+        int column = grid.getColumn(x);
+        int row = grid.getRow(y);
+        for (int c = 0; c < NEIGHBOR_CELLS.length; c += 2) { // a duck is smaller than a cell, so the ducks under the shot are in the cells around it
+            int cellColumn = column + NEIGHBOR_CELLS[c];
+            int cellRow = row + NEIGHBOR_CELLS[c + 1];
+            if (cellColumn < 0 || cellRow < 0 || cellColumn >= grid.getColumnCount() || cellRow >= grid.getRowCount()) {
+                continue;
+            }
+            for (int entry = grid.getFirstEntry(cellColumn, cellRow); entry != -1; entry = grid.getNextEntry(entry)) {
+                int j = grid.getEntryId(entry);
+                if (states[j] == FLYING && Math.abs(xs[j] - x) <= hitHalfWidths[colors[j]] && Math.abs(ys[j] - y) <= hitHalfHeights[colors[j]]) {
+                    states[j] = FALLING;
+                    fallTimes[j] = 0;
+                    flyingCount--;
+                    hits[hitCount++] = j;
+                }
+            }
+        }
+        return hitCount;
+    }
+
+    /**
+     * This method sets whether the ducks are steered on all the cores or on the calling thread only
+     * @param parallel true to steer the ducks in parallel
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * This method returns a duck hit by the last shot
+     * @param hitIndex the index of the hit, below the number returned by shoot
+     * @return the index of the duck
+     */
+    public int getHit(int hitIndex) {
+        return hits[hitIndex];
+    }
+
+    /**
+     * This method returns the x coordinate of the center of a duck
+     * @param i the index of the duck
+     * @return the x coordinate of the duck
+     */
+    public double getX(int i) {
+        return xs[i];
+    }
+
+    /**
+     * This method returns the y coordinate of the center of a duck
+     * @param i the index of the duck
+     * @return the y coordinate of the duck
+     */
+    public double getY(int i) {
+        return ys[i];
+    }
+
+    /**
+     * This method returns the horizontal speed of a duck
+     * @param i the index of the duck
+     * @return the horizontal speed, in pixels per second
+     */
+    public double getXSpeed(int i) {
+        return xSpeeds[i];
+    }
+
+    /**
+     * This method returns the vertical speed of a duck
+     * @param i the index of the duck
+     * @return the vertical speed, in pixels per second, positive downwards
+     */
+    public double getYSpeed(int i) {
+        return ySpeeds[i];
+    }
+
+    /**
+     * This method returns the state of a duck
+     * @param i the index of the duck
+     * @return FLYING, FALLING or GONE
+     */
+    public byte getState(int i) {
+        return states[i];
+    }
+
+    /**
+     * This method returns the color of a duck
+     * @param i the index of the duck
+     * @return the index of the color in LevelSpec.COLORS
+     */
+    public int getColor(int i) {
+        return colors[i];
+    }
+
+    /**
+     * This method returns the animation time of a flying duck, which is different for every duck
+     * @param i the index of the duck
+     * @return the animation time, in seconds
+     */
+    public double getAnimationTime(int i) {
+        return phases[i] + tickCount * STEP;
+    }
+
+    /**
+     * This method returns the time since a duck was shot
+     * @param i the index of the duck
+     * @return the falling time, in seconds
+     */
+    public double getFallTime(int i) {
+        return fallTimes[i];
+    }
+
+    /**
+     * This method returns the number of ducks of the flock, including the shot ones
+     * @return the number of ducks
+     */
+    public int getDuckCount() {
+        return duckCount;
+    }
+
+    /**
+     * This method returns the number of ducks that are not shot
+     * @return the number of flying ducks
+     */
+    public int getFlyingCount() {
+        return flyingCount;
+    }
+
+    /**
+     * This method returns the number of simulation steps since the flock was created
+     * @return the number of simulation steps
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    /**
+     * This method returns the scale of the game visuals
+     * @return the scale the ducks are simulated at
+     */
+    public double getScale() {
+        return scale;
+    }
+}
@@ -0,0 +1,152 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * This class holds the Java Flight Recorder events of the game.
+ * The events are only written when a recording is running, for example when the game is started with
+ * -XX:StartFlightRecording, and can be viewed in JDK Mission Control next to the garbage collections and
+ * the JavaFX pulses, to find the game events that cause stutters.
+ * An event that is not enabled costs a field check, so they can be left on in the released game.
+ */
+public final class GameEvents {
+    private static final String CATEGORY = "Duck Hunt";
+
+    private GameEvents() {
+    }
+
+    /**
+     * A shot of the player, its duration is the time spent in the hit test and the shot handling.
+     */
+    @Name("duckhunt.ShotFired")
+    @Label("Shot Fired")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static class ShotFired extends Event {
+        @Label("Level")
+        public int level;
+        @Label("X")
+        public double x;
+        @Label("Y")
+        public double y;
+        @Label("Ammo Left")
+        public int ammoLeft;
+        @Label("Candidates")
+        @Description("The number of ducks in the grid cell of the shot")
+        public int candidates;
+        @Label("Hits")
+        public int hits;
+    }
+
+    /**
+     * A duck that is hit by a shot.
+     */
+    @Name("duckhunt.HitRegistered")
+    @Label("Hit Registered")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static class HitRegistered extends Event {
+        @Label("Level")
+        public int level;
+        @Label("Duck Index")
+        public int duckIndex;
+        @Label("Ducks Left")
+        public int ducksLeft;
+    }
+
+    /**
+     * A level that is loaded into the level screen, its duration is the time spent loading it.
+     */
+    @Name("duckhunt.LevelStarted")
+    @Label("Level Started")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static class LevelStarted extends Event {
+        @Label("Level")
+        public int level;
+        @Label("Ducks")
+        public int duckCount;
+        @Label("Ammo")
+        public int ammo;
+        @Label("Prepared")
+        @Description("Whether the level was prepared in the background before it was started")
+        public boolean prepared;
+    }
+
+    /**
+     * A level that is completed or failed, its duration is the time the level was played.
+     */
+    @Name("duckhunt.LevelEnded")
+    @Label("Level Ended")
+    @Category({CATEGORY, "Gameplay"})
+    @StackTrace(false)
+    public static class LevelEnded extends Event {
+        @Label("Level")
+        public int level;
+        @Label("Outcome")
+        @Description("complete or failed")
+        public String outcome;
+        @Label("Ammo Left")
+        public int ammoLeft;
+    }
+
+    /**
+     * A change of the scene of the main stage, its duration includes the construction of the new scene.
+     */
+    @Name("duckhunt.SceneTransition")
+    @Label("Scene Transition")
+    @Category({CATEGORY, "Scenes"})
+    @StackTrace(false)
+    public static class SceneTransition extends Event {
+        @Label("From")
+        public String from;
+        @Label("To")
+        public String to;
+        @Label("Reused")
+        @Description("Whether the scene was reused instead of being created")
+        public boolean reused;
+    }
+
+    /**
+     * An image that is decoded, its duration is the time spent decoding it.
+     */
+    @Name("duckhunt.ImageDecode")
+    @Label("Image Decode")
+    @Category({CATEGORY, "Assets"})
+    public static class ImageDecode extends Event {
+        @Label("Asset Path")
+        public String path;
+        @Label("Scale")
+        public double scale;
+        @Label("Pre-scaled")
+        @Description("Whether a copy scaled by the build step was decoded")
+        public boolean prescaled;
+        @Label("Width")
+        public double width;
+        @Label("Height")
+        public double height;
+        @Label("Decoded Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * A media player or audio clip that is created, its duration is the time spent creating it.
+     */
+    @Name("duckhunt.MediaCreated")
+    @Label("Media Created")
+    @Category({CATEGORY, "Assets"})
+    public static class MediaCreated extends Event {
+        @Label("Asset Path")
+        public String path;
+        @Label("Kind")
+        @Description("music for a media player, effect for the audio clips of an effect")
+        public String kind;
+        @Label("Voices")
+        public int voices;
+    }
+}
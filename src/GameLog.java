@@ -0,0 +1,497 @@
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class is the structured event log of the game.
+ * An event has a level, a name and up to three named fields, and is written as a JSON line to logs/game.log.
+ * Logging an event only claims a slot of a lock-free ring buffer and copies the references and the whole numbers into it,
+ * the formatting and the file writes are done in batches by a background thread,
+ * so logging does not delay the JavaFX application thread. If the ring buffer is full the event is dropped and counted.
+ * The lowest level that is logged is set with -Dduckhunt.log.level, and -Dduckhunt.log.console=true also prints the events.
+ */
+public final class GameLog {
+    /**
+     * The level of an event.
+     */
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final int CAPACITY = 4096; // the number of slots of the ring buffer, a power of two
+    private static final long DRAIN_INTERVAL_NANOS = 50_000_000L; // the background thread sleeps this long when there is nothing to write
+    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // the log file is rolled over at startup when it is larger than this
+    private static final File LOG_FILE = new File("../logs/game.log");
+    private static final Level MIN_LEVEL = Level.valueOf(System.getProperty("duckhunt.log.level", "INFO").toUpperCase());
+    private static final boolean CONSOLE = Boolean.getBoolean("duckhunt.log.console");
+    private static final Entry[] ring = new Entry[CAPACITY];
+    private static final AtomicLong tail = new AtomicLong(); // the next slot claimed by a producer
+    private static final AtomicLong dropped = new AtomicLong(); // the events dropped because the ring buffer was full
+    private static final ThreadLocal<String> threadNames = ThreadLocal.withInitial(() -> Thread.currentThread().getName()); // read once per thread
+    private static final Object NUMBER = new Object(); // the value of a field whose number is stored in the slot
+    private static long head = 0; // the next slot read by the background thread, only used by it
+    private static volatile boolean running = true;
+    private static final Thread drainer;
+
+    /**
+     * A slot of the ring buffer. The sequence tells whether the slot is free for a producer or ready for the background thread.
+     */
+    private static final class Entry {
+        volatile long sequence;
+        long time;
+        Level level;
+        String thread;
+        String event;
+        String key1, key2, key3;
+        Object value1, value2, value3;
+        long number1, number2, number3; // the values of the fields whose value is NUMBER
+    }
+
+    static {
+        for (int i = 0; i < CAPACITY; i++) {
+            ring[i] = new Entry();
+            ring[i].sequence = i;
+        }
+        drainer = new Thread(GameLog::drainLoop, "game-log");
+        drainer.setDaemon(true); // the log must not keep the application running
+        drainer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(GameLog::shutdown, "game-log-shutdown"));
+    }
+
+    private GameLog() {
+    }
+
+    /**
+     * This method logs a debug event.
+     * @param event The name of the event.
+     */
+    public static void debug(String event) {
+        publish(Level.DEBUG, event, null, null, null, null, null, null);
+    }
+
+    /**
+     * This method logs a debug event with a field.
+     * @param event The name of the event.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     */
+    public static void debug(String event, String key, Object value) {
+        publish(Level.DEBUG, event, key, value, null, null, null, null);
+    }
+
+    /**
+     * This method logs a debug event with two fields.
+     * @param event The name of the event.
+     * @param key1 The name of the first field.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field.
+     * @param value2 The value of the second field.
+     */
+    public static void debug(String event, String key1, Object value1, String key2, Object value2) {
+        publish(Level.DEBUG, event, key1, value1, key2, value2, null, null);
+    }
+
+    /**
+     * This method logs a debug event with a whole number field, without boxing it.
+     * @param event The name of the event.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     */
+    public static void debug(String event, String key, long value) {
+        publish(Level.DEBUG, event, key, value, null, 0, null, 0);
+    }
+
+    /**
+     * This method logs a debug event with two whole number fields, without boxing them.
+     * @param event The name of the event.
+     * @param key1 The name of the first field.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field.
+     * @param value2 The value of the second field.
+     */
+    public static void debug(String event, String key1, long value1, String key2, long value2) {
+        publish(Level.DEBUG, event, key1, value1, key2, value2, null, 0);
+    }
+
+    /**
+     * This method logs an info event.
+     * @param event The name of the event.
+     */
+    public static void info(String event) {
+        publish(Level.INFO, event, null, null, null, null, null, null);
+    }
+
+    /**
+     * This method logs an info event with a field.
+     * @param event The name of the event.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     */
+    public static void info(String event, String key, Object value) {
+        publish(Level.INFO, event, key, value, null, null, null, null);
+    }
+
+    /**
+     * This method logs an info event with two fields.
+     * @param event The name of the event.
+     * @param key1 The name of the first field.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field.
+     * @param value2 The value of the second field.
+     */
+    public static void info(String event, String key1, Object value1, String key2, Object value2) {
+        publish(Level.INFO, event, key1, value1, key2, value2, null, null);
+    }
+
+    /**
+     * This method logs an info event with three fields.
+     * @param event The name of the event.
+     * @param key1 The name of the first field.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field.
+     * @param value2 The value of the second field.
+     * @param key3 The name of the third field.
+     * @param value3 The value of the third field.
+     */
+    public static void info(String event, String key1, Object value1, String key2, Object value2, String key3, Object value3) {
+        publish(Level.INFO, event, key1, value1, key2, value2, key3, value3);
+    }
+
+    /**
+     * This method logs an info event with a whole number field, without boxing it.
+     * @param event The name of the event.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     */
+    public static void info(String event, String key, long value) {
+        publish(Level.INFO, event, key, value, null, 0, null, 0);
+    }
+
+    /**
+     * This method logs an info event with two whole number fields, without boxing them.
+     * @param event The name of the event.
+     * @param key1 The name of the first field.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field.
+     * @param value2 The value of the second field.
+     */
+    public static void info(String event, String key1, long value1, String key2, long value2) {
+        publish(Level.INFO, event, key1, value1, key2, value2, null, 0);
+    }
+
+    /**
+     * This method logs an info event with three whole number fields, without boxing them, like the shots of a level.
+     * @param event The name of the event.
+     * @param key1 The name of the first field.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field.
+     * @param value2 The value of the second field.
+     * @param key3 The name of the third field.
+     * @param value3 The value of the third field.
+     */
+    public static void info(String event, String key1, long value1, String key2, long value2, String key3, long value3) {
+        publish(Level.INFO, event, key1, value1, key2, value2, key3, value3);
+    }
+
+    /**
+     * This method logs a warning event with a field.
+     * @param event The name of the event.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     */
+    public static void warn(String event, String key, Object value) {
+        publish(Level.WARN, event, key, value, null, null, null, null);
+    }
+
+    /**
+     * This method logs a warning event with a whole number field, without boxing it.
+     * @param event The name of the event.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     */
+    public static void warn(String event, String key, long value) {
+        publish(Level.WARN, event, key, value, null, 0, null, 0);
+    }
+
+    /**
+     * This method returns whether the events of a level are logged, to skip computing the fields of events that are not
+     * @param level the level of the events
+     * @return true if the events are logged
+     */
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(MIN_LEVEL) >= 0;
+    }
+
+    /**
+     * This method returns the number of events dropped because the ring buffer was full
+     * @return the number of dropped events
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * This method copies an event into a slot of the ring buffer.
+     * It never blocks, the event is dropped if the ring buffer is full.
+     * @param level The level of the event.
+     * @param event The name of the event.
+     * @param key1 The name of the first field, or null.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field, or null.
+     * @param value2 The value of the second field.
+     * @param key3 The name of the third field, or null.
+     * @param value3 The value of the third field.
+     */
+    private static void publish(Level level, String event, String key1, Object value1, String key2, Object value2, String key3, Object value3) {
+        long position = claim(level);
+        if (position < 0) {
+            return;
+        }
+        Entry entry = ring[(int) (position & (CAPACITY - 1))];
+        entry.event = event;
+        entry.key1 = key1;
+        entry.value1 = value1;
+        entry.key2 = key2;
+        entry.value2 = value2;
+        entry.key3 = key3;
+        entry.value3 = value3;
+        entry.sequence = position + 1; // publish the event to the background thread
+    }
+
+    /**
+     * This method copies an event with whole number fields into a slot of the ring buffer, the numbers are formatted
+     * by the background thread.
+     * It never blocks, the event is dropped if the ring buffer is full.
+     * @param level The level of the event.
+     * @param event The name of the event.
+     * @param key1 The name of the first field, or null.
+     * @param value1 The value of the first field.
+     * @param key2 The name of the second field, or null.
+     * @param value2 The value of the second field.
+     * @param key3 The name of the third field, or null.
+     * @param value3 The value of the third field.
+     */
+    private static void publish(Level level, String event, String key1, long value1, String key2, long value2, String key3, long value3) {
+        long position = claim(level);
+        if (position < 0) {
+            return;
+        }
+        Entry entry = ring[(int) (position & (CAPACITY - 1))];
+        entry.event = event;
+        entry.key1 = key1;
+        entry.value1 = NUMBER;
+        entry.number1 = value1;
+        entry.key2 = key2;
+        entry.value2 = NUMBER;
+        entry.number2 = value2;
+        entry.key3 = key3;
+        entry.value3 = NUMBER;
+        entry.number3 = value3;
+        entry.sequence = position + 1; // publish the event to the background thread
+    }
+
+    /**
+     * This method claims a slot of the ring buffer for an event and sets its time, level and thread.
+     * The event is published by setting the sequence of the slot to the returned position plus one.
+     * @param level The level of the event.
+     * @return the position of the claimed slot, or -1 if the event is not logged or the ring buffer is full
+     */
+    private static long claim(Level level) {
+        if (!isEnabled(level)) {
+            return -1;
+        }
+        long time = System.currentTimeMillis();
+        Entry entry;
+        long position = tail.get();
+        while (true) {
+            entry = ring[(int) (position & (CAPACITY - 1))];
+            long difference = entry.sequence - position;
+            if (difference == 0) { // the slot is free, try to claim it
+                if (tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = tail.get();
+            } else if (difference < 0) { // the slot is not written yet by the background thread, the buffer is full
+                dropped.incrementAndGet();
+                return -1;
+            } else { // another producer claimed the slot
+                position = tail.get();
+            }
+        }
+        entry.time = time;
+        entry.level = level;
+        entry.thread = threadNames.get();
+        return position;
+    }
+
+    /**
+     * This method is run by the background thread, it writes the events in batches until the log is shut down.
+     */
+    private static void drainLoop() {
+        Writer writer = openLogFile();
+        StringBuilder batch = new StringBuilder(16 * 1024);
+        while (running) {
+            if (drain(batch) == 0) {
+                LockSupport.parkNanos(DRAIN_INTERVAL_NANOS);
+                continue;
+            }
+            writer = write(writer, batch);
+        }
+        drain(batch); // the events logged before the shutdown
+        writer = write(writer, batch);
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ignored) {
+                // the log is only diagnostics
+            }
+        }
+    }
+
+    /**
+     * This method formats the events that are ready as JSON lines and frees their slots.
+     * @param batch The builder the lines are appended to.
+     * @return the number of events formatted
+     */
+    private static int drain(StringBuilder batch) {
+        int count = 0;
+        while (true) {
+            Entry entry = ring[(int) (head & (CAPACITY - 1))];
+            if (entry.sequence != head + 1) { // the next event is not published yet
+                return count;
+            }
+            batch.append("{\"time\":\"").append(Instant.ofEpochMilli(entry.time))
+                    .append("\",\"level\":\"").append(entry.level)
+                    .append("\",\"thread\":");
+            appendValue(batch, entry.thread);
+            batch.append(",\"event\":");
+            appendValue(batch, entry.event);
+            appendField(batch, entry.key1, entry.value1, entry.number1);
+            appendField(batch, entry.key2, entry.value2, entry.number2);
+            appendField(batch, entry.key3, entry.value3, entry.number3);
+            batch.append("}\n");
+            entry.value1 = entry.value2 = entry.value3 = null; // the values are not kept alive by the ring buffer
+            entry.sequence = head + CAPACITY; // the slot is free for the next round of the ring buffer
+            head++;
+            count++;
+        }
+    }
+
+    /**
+     * This method appends a field of an event to a JSON line, numbers and booleans are not quoted.
+     * @param batch The builder of the line.
+     * @param key The name of the field, the field is skipped if it is null.
+     * @param value The value of the field.
+     * @param number The value of the field if the value is NUMBER.
+     */
+    private static void appendField(StringBuilder batch, String key, Object value, long number) {
+        if (key == null) {
+            return;
+        }
+        batch.append(',');
+        appendValue(batch, key);
+        batch.append(':');
+        if (value == NUMBER) {
+            batch.append(number);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            batch.append(value);
+        } else {
+            appendValue(batch, value == null ? null : value.toString());
+        }
+    }
+
+    /**
+     * This method appends a string as a JSON string, or null.
+     * @param batch The builder of the line.
+     * @param value The string.
+     */
+    private static void appendValue(StringBuilder batch, String value) {
+        if (value == null) {
+            batch.append("null");
+            return;
+        }
+        batch.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                batch.append('\\').append(c);
+            } else if (c == '\n') {
+                batch.append("\\n");
+            } else if (c < 0x20) {
+                batch.append(String.format("\\u%04x", (int) c));
+            } else {
+                batch.append(c);
+            }
+        }
+        batch.append('"');
+    }
+
+    /**
+     * This method writes a batch of lines to the log file and the console, and clears the batch.
+     * @param writer The writer of the log file, or null if the file can not be written.
+     * @param batch The lines to be written.
+     * @return the writer, or null if the file can not be written anymore
+     */
+    private static Writer write(Writer writer, StringBuilder batch) {
+        if (batch.length() == 0) {
+            return writer;
+        }
+        if (CONSOLE) {
+            System.out.print(batch);
+        }
+        if (writer != null) {
+            try {
+                writer.append(batch);
+                writer.flush(); // one flush for the whole batch
+            } catch (IOException e) {
+                System.err.println("The game log can not be written: " + e.getMessage());
+                writer = null;
+            }
+        }
+        batch.setLength(0);
+        return writer;
+    }
+
+    /**
+     * This method opens the log file for appending, rolling it over first if it is too large.
+     * @return the writer of the log file, or null if it can not be opened
+     */
+    private static Writer openLogFile() {
+        try {
+            File directory = LOG_FILE.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                directory.mkdirs();
+            }
+            if (LOG_FILE.length() > MAX_FILE_SIZE) {
+                File old = new File(directory, "game.1.log");
+                old.delete();
+                LOG_FILE.renameTo(old);
+            }
+            return new BufferedWriter(new FileWriter(LOG_FILE, true));
+        } catch (IOException e) {
+            System.err.println("The game log can not be opened: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * This method stops the background thread after it has written the events that are logged.
+     */
+    public static void shutdown() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+import javafx.animation.AnimationTimer;
+
+/**
+ * This class is the game loop of a scene, used by the levels and the flock mode.
+ * It is driven by an AnimationTimer, so it runs once per rendered frame on the JavaFX application thread.
+ * The elapsed frame time is accumulated and the simulation is advanced in fixed simulation steps,
+ * and the scene is rendered once per frame after the steps, so the render only shows the state of the last step.
+ * The queued shots are handled at the start of every frame, before the steps.
+ */
+public class GameLoop extends AnimationTimer {
+    public static final double STEP = LevelSimulation.STEP; // the fixed simulation step of the levels, in seconds
+    private static final double MAX_FRAME_TIME = 0.25; // the longest frame time simulated, so that a stall does not cause a burst of steps
+
+    /**
+     * The simulation that the loop advances in fixed steps.
+     */
+    public interface Steppable {
+        /**
+         * This method advances the simulation by one step.
+         */
+        void tick();
+
+        /**
+         * This method returns the number of ducks of the simulation, recorded with the frame times.
+         * @return the number of ducks
+         */
+        int getEntityCount();
+    }
+
+    /**
+     * The renderer that draws the state of the last step, once per frame.
+     */
+    public interface Renderer {
+        /**
+         * This method draws the scene.
+         */
+        void render();
+    }
+
+    private final double step;
+    private final Steppable simulation;
+    private final Renderer renderer;
+    private PerformanceMonitor performanceMonitor; // collects the frame times, null if they are not collected
+    private InputQueue inputQueue; // the shots pressed since the last frame, null if there is no input
+    private InputQueue.ShotHandler shotHandler;
+    private long lastFrameTime = -1; // the time of the previous frame in nanoseconds, -1 if the loop has not run yet
+    private double accumulator = 0; // the simulation time that is not simulated yet, in seconds
+    private long lastFrameCost = 0; // the time spent in the last frame, in nanoseconds
+    private long tickCount = 0;
+
+    /**
+     * This constructor creates the game loop.
+     * @param step The fixed simulation step, in seconds.
+     * @param simulation The simulation that is advanced in fixed steps.
+     * @param renderer The renderer that draws the scene after the steps of every frame.
+     */
+    public GameLoop(double step, Steppable simulation, Renderer renderer) {
+        this.step = step;
+        this.simulation = simulation;
+        this.renderer = renderer;
+    }
+
+    /**
+     * This method is called once per frame by the JavaFX pulse.
+     * @param now the time of the current frame in nanoseconds
+     */
+    @Override
+    public void handle(long now) {
+        long start = System.nanoTime();
+        if (inputQueue != null) { // the shots are tested against the state rendered in the last frame, which the player saw
+            inputQueue.drain(shotHandler);
+        }
+        if (lastFrameTime < 0) { // the first frame only sets the reference time
+            lastFrameTime = now;
+            return;
+        }
+        accumulator += Math.min((now - lastFrameTime) / 1e9, MAX_FRAME_TIME);
+        lastFrameTime = now;
+        long tickStart = System.nanoTime();
+        while (accumulator >= step) { // advance the simulation in fixed steps
+            tick();
+            accumulator -= step;
+        }
+        long tickCost = System.nanoTime() - tickStart;
+        renderer.render(); // render the state of the last step
+        lastFrameCost = System.nanoTime() - start;
+        if (performanceMonitor != null) {
+            performanceMonitor.recordFrame(now, lastFrameCost, tickCost, simulation.getEntityCount());
+        }
+    }
+
+    /**
+     * This method advances the simulation by one simulation step, without rendering it.
+     */
+    public void tick() {
+        simulation.tick();
+        tickCount++;
+    }
+
+    /**
+     * This method stops the game loop, the next start continues from the next frame without catching up.
+     */
+    @Override
+    public void stop() {
+        super.stop();
+        lastFrameTime = -1;
+        accumulator = 0;
+    }
+
+    /**
+     * This method sets the queue of the shots and the handler the game loop gives them to at the start of every frame
+     * @param inputQueue the queue of the shots
+     * @param shotHandler the handler of the shots
+     */
+    public void setInput(InputQueue inputQueue, InputQueue.ShotHandler shotHandler) {
+        this.inputQueue = inputQueue;
+        this.shotHandler = shotHandler;
+    }
+
+    /**
+     * This method sets the monitor that collects the frame times of the loop
+     * @param performanceMonitor the performance monitor, or null to not collect the frame times
+     */
+    public void setPerformanceMonitor(PerformanceMonitor performanceMonitor) {
+        this.performanceMonitor = performanceMonitor;
+    }
+
+    /**
+     * This method returns the time spent in the last frame
+     * @return the time spent in the last frame, in nanoseconds
+     */
+    public long getLastFrameCost() {
+        return lastFrameCost;
+    }
+
+    /**
+     * This method returns the number of simulation steps since the loop was created
+     * @return the number of simulation steps
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+}
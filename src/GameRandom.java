@@ -0,0 +1,44 @@
+import java.util.Random;
+
+/**
+ * This class is the source of all the randomness of the game.
+ * It is seeded once for the session, and every level draws its own seed from it, so a level is reproduced
+ * from its seed alone, and a whole session is reproduced from the session seed.
+ * The seed is random unless it is set, for example from the command line or by a replay.
+ */
+public final class GameRandom {
+    private static long seed;
+    private static Random random;
+
+    static {
+        setSeed(new Random().nextLong());
+    }
+
+    private GameRandom() {
+    }
+
+    /**
+     * This method seeds the random number generator of the session.
+     * @param newSeed The seed of the session.
+     */
+    public static synchronized void setSeed(long newSeed) {
+        seed = newSeed;
+        random = new Random(newSeed);
+    }
+
+    /**
+     * This method returns the seed of the session
+     * @return the seed the session was started with
+     */
+    public static synchronized long getSeed() {
+        return seed;
+    }
+
+    /**
+     * This method returns the next seed of the session, used to seed the random number generator of a level
+     * @return a seed drawn from the random number generator of the session
+     */
+    public static synchronized long nextSeed() {
+        return random.nextLong();
+    }
+}
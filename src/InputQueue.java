@@ -0,0 +1,91 @@
+/**
+ * This class queues the shots of the player until the game loop handles them.
+ * A shot is queued when the mouse button is pressed, with the time of the press, and the game loop handles the queued
+ * shots at the start of its next frame, before the simulation steps, so a shot is tested against the poses the player saw.
+ * The time from the press to the end of the handling of the shot is recorded in a latency histogram.
+ * The shots are kept in arrays of primitives, so queueing a shot does not allocate.
+ */
+public class InputQueue {
+    /**
+     * The handler of the shots taken from the queue.
+     */
+    public interface ShotHandler {
+        /**
+         * This method handles a shot.
+         * @param x The x coordinate of the shot.
+         * @param y The y coordinate of the shot.
+         */
+        void handleShot(double x, double y);
+    }
+
+    private static final int CAPACITY = 64; // more shots than this in a frame are dropped
+    private final double[] xs = new double[CAPACITY];
+    private final double[] ys = new double[CAPACITY];
+    private final long[] pressTimes = new long[CAPACITY];
+    private final LatencyHistogram latencyHistogram = new LatencyHistogram();
+    private int head = 0; // the index of the oldest shot
+    private int size = 0;
+
+    /**
+     * This method queues a shot. The queue is not synchronized, it must be called on the JavaFX application thread like drain.
+     * @param x The x coordinate of the shot.
+     * @param y The y coordinate of the shot.
+     * @param pressTime The time of the press, from System.nanoTime.
+     * @return true if the shot is queued, false if the queue is full
+     */
+    public boolean offer(double x, double y, long pressTime) {
+        if (size == CAPACITY) {
+            return false;
+        }
+        int index = (head + size) % CAPACITY;
+        xs[index] = x;
+        ys[index] = y;
+        pressTimes[index] = pressTime;
+        size++;
+        return true;
+    }
+
+    /**
+     * This method handles the queued shots in the order they were pressed, and records their latencies.
+     * @param handler The handler of the shots.
+     * @return the number of handled shots
+     */
+    public int drain(ShotHandler handler) {
+        int handled = 0;
+        while (size > 0) {
+            double x = xs[head];
+            double y = ys[head];
+            long pressTime = pressTimes[head];
+            head = (head + 1) % CAPACITY;
+            size--; // the shot is taken before it is handled, so the handler can queue shots
+            handler.handleShot(x, y);
+            latencyHistogram.record(System.nanoTime() - pressTime);
+            handled++;
+        }
+        return handled;
+    }
+
+    /**
+     * This method removes the queued shots without handling them.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * This method returns the number of queued shots
+     * @return the number of queued shots
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns the histogram of the time from the press of a shot to the end of its handling
+     * @return the latency histogram of the shots
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+}
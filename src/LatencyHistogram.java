@@ -0,0 +1,109 @@
+import java.util.Arrays;
+
+/**
+ * This class is a histogram of latencies in nanoseconds, with buckets that grow with the latency.
+ * Every power of two is split into 8 buckets, so a percentile is within 12.5% of the recorded latency,
+ * and recording a latency only increments a counter, without allocating.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS; // the number of buckets of every power of two
+    private final long[] counts = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+    private long count;
+    private long sum;
+    private long max;
+
+    /**
+     * This method records a latency.
+     * @param nanos The latency in nanoseconds, negative latencies are recorded as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[bucketOf(value)]++;
+        count++;
+        sum += value;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * This method returns the bucket of a latency.
+     * The latencies below 8 ns have a bucket each, above that the buckets of a power of two are 8 times narrower than it.
+     * @param value The latency in nanoseconds.
+     * @return the index of the bucket
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    /**
+     * This method returns the highest latency of a bucket.
+     * @param bucket The index of the bucket.
+     * @return the highest latency of the bucket, in nanoseconds
+     */
+    private static long highestOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    /**
+     * This method returns a percentile of the recorded latencies
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds that the given percentage of the latencies are not above, 0 if nothing is recorded
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(highestOf(i), max);
+            }
+        }
+        return max;
+    }
+
+    /**
+     * This method returns the number of recorded latencies
+     * @return the number of recorded latencies
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * This method returns the mean of the recorded latencies
+     * @return the mean latency in nanoseconds, 0 if nothing is recorded
+     */
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * This method returns the highest recorded latency
+     * @return the highest latency in nanoseconds
+     */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * This method removes all the recorded latencies.
+     */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -1,4 +1,3 @@
-import javafx.animation.Timeline;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
@@ -7,31 +6,38 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.*;
 import javafx.geometry.*;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 /**
  * This class is the scene that is displayed when the user is playing the game.
  * It contains the background, foreground, and ducks.
  * It also contains the ammo count and level number.
- * It also contains the animation for the ducks.
+ * It also contains the game loop that animates the ducks.
+ * The ducks, the ammo and the shots are simulated by a LevelSimulation, and the scene renders it.
+ * The background and the foreground do not change during a level, so they are cached bitmap layers,
+ * and only the ducks between them are drawn again on every frame.
  */
 public class LevelScreen extends Scene {
+    private final double scale;
+    private final double scaledWidth;
     private final double scaledHeight;
-    private int ammoCount;
+    private final Text levelText;
     private final Text ammoText;
-    private int birdCount;
-    private ImageView duck1 = new ImageView();
-    private ImageView duck2 = new ImageView();
-    private ImageView duck3 = new ImageView();
-    private Timeline duck1Animation = new Timeline();
-    private Timeline duck2Animation = new Timeline();
-    private Timeline duck3Animation = new Timeline();
     private final ArrayList<Duck> ducks = new ArrayList<>();
+    private final ArrayList<ImageView> duckImageViews = new ArrayList<>();
+    private final Pane duckLayer = new Pane(); // the layer of the duck image views, between the background and the foreground
+    private final CanvasRenderer canvasRenderer; // draws the background, ducks and foreground in one canvas, null if the ducks are nodes
+    private LevelSimulation simulation; // the ducks, the ammo and the shots of the level
+    private LevelSimulation spareSimulation; // the simulation of the previous level, used to prepare the next level
+    private CompletableFuture<LevelSimulation> preparedLevel; // the next level, prepared in the background, null if there is none
+    private final InputQueue inputQueue = new InputQueue(); // the shots wait here for the game loop
+    private final GameLoop gameLoop;
 
     /**
      * This constructor creates the scene and sets the background, foreground, and ducks.
      * It also sets the ammo count and level number.
-     * It also sets the animation for the ducks.
+     * It also starts the game loop that animates the ducks.
      * It also sets the size of the scene.
      * It also sets the position of the ammo count and level number.
      * @param root The root pane of the scene.
@@ -41,24 +47,61 @@ public class LevelScreen extends Scene {
      * @param level The level number of the game.
      */
     public LevelScreen(StackPane root, BackgroundImage backgroundImage, Image foregroundImage, double scale, Integer level) {
+        this(root, backgroundImage, foregroundImage, scale, LevelSpec.forLevel(level), false);
+    }
+
+    /**
+     * This constructor creates the scene of a level from its specification.
+     * The ducks are created in a loop, and the collections hold only the ducks of the level.
+     * The scene can be reused for the next levels with loadLevel.
+     * With canvas rendering, the background, ducks and foreground are drawn into one canvas instead of being nodes,
+     * which keeps the cost of the scene graph constant for levels with many ducks.
+     * @param root The root pane of the scene.
+     * @param backgroundImage The background image.
+     * @param foregroundImage The foreground image.
+     * @param scale The scale of the instance.
+     * @param spec The specification of the level.
+     * @param canvasRendering Whether the level is drawn into a canvas instead of a node for every duck.
+     */
+    public LevelScreen(StackPane root, BackgroundImage backgroundImage, Image foregroundImage, double scale, LevelSpec spec, boolean canvasRendering) {
         super(root);
+        this.scale = scale;
         root.setAlignment(Pos.TOP_LEFT);
-        System.out.println("LevelScreen");
+        GameLog.debug("screen.create", "screen", "level");
         Image img = backgroundImage.getImage();
         double imgWidth = img.getWidth();
-        double scaledWidth = imgWidth * scale;
+        scaledWidth = imgWidth * scale;
         double imgHeight = img.getHeight();
         scaledHeight = imgHeight*scale;
         root.setPrefSize(scaledWidth, scaledHeight);
-        root.setBackground(new Background(backgroundImage));
-        birdCount = ((int) (level/2.5))+1; // 1, 1, 2, 2, 3, 3
-        ammoCount = birdCount*3; // 3, 3, 6, 6, 9, 9
-        Text levelText = new Text("Level " + level + "/6");
+        if (canvasRendering) {
+            canvasRenderer = new CanvasRenderer(img, foregroundImage, scaledWidth, scaledHeight);
+            root.getChildren().add(canvasRenderer.getCanvas()); // the canvas is below the texts
+        } else {
+            canvasRenderer = null;
+            root.getChildren().add(createStaticLayer(img, scaledWidth, scaledHeight)); // the background is below the texts
+            duckLayer.setPickOnBounds(false); // clicks on the empty parts of the layer reach the root
+            root.getChildren().add(duckLayer); // the ducks are drawn between the background and the foreground
+            root.getChildren().add(createStaticLayer(foregroundImage, foregroundImage.getWidth(), foregroundImage.getHeight())); // add foreground image to scene
+        }
+        simulation = new LevelSimulation(scale, scaledWidth, scaledHeight);
+        gameLoop = new GameLoop(LevelSimulation.STEP, new GameLoop.Steppable() { // a single loop updates all the ducks of the level
+            @Override
+            public void tick() {
+                tickLevel();
+            }
+
+            @Override
+            public int getEntityCount() {
+                return ducks.size();
+            }
+        }, this::renderDucks);
+        levelText = new Text();
         levelText.setTextAlignment(TextAlignment.CENTER);
         Color color = Color.rgb(241, 159, 20);
         levelText.setFill(color);
         levelText.setFont(Font.font("Arial", FontWeight.BOLD, 7.5*scale));
-        ammoText = new Text("Ammo Left: " + ammoCount);
+        ammoText = new Text();
         ammoText.setTextAlignment(TextAlignment.CENTER);
         ammoText.setFill(color);
         ammoText.setFont(Font.font("Arial", FontWeight.BOLD, 7.5*scale));
@@ -68,241 +111,173 @@ public class LevelScreen extends Scene {
         topHBox.setSpacing(scaledWidth *0.25);
         topHBox.getChildren().add(0, new Text(" "));
         topHBox.getChildren().addAll(levelText, ammoText);
-        root.getChildren().add(topHBox);
-        String[] colors = {"red", "blue", "black"};
-        String duck1Color = colors[(int) (Math.random()*3)]; // duck color is random between red, blue, and black to add variety
-        String duck2Color = colors[(int) (Math.random()*3)];
-        String duck3Color = colors[(int) (Math.random()*3)];
-        Random random = new Random();
-        double maxY = 0.4; // ducks will spawn in the top 40% of the screen at most to ensure visibility
-        double minY = 0.05; // ducks will spawn in the top 5% of the screen at least to ensure visibility
-        double maxX = 0.85; // ducks will spawn in the 85% portion of the screen from the left edge at most to ensure visibility
-        double minX = 0.05; // ducks will spawn in the 5% portion of the screen from the left edge at least to ensure visibility
-        double startingX; // starting x position of the duck will be random between the min and max x values to add variety and randomness
-        double startingY; // starting y position of the duck will be random between the min and max y values to add variety and randomness
-        if (level == 1){ // level 1 has 1 duck that moves horizontally
-            ducks.add(new Duck(duck1Color, scale, false, scaledWidth, scaledHeight)); // creates a duck object that moves horizontally
-            duck1 = ducks.get(0).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX); // random starting x position
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY); // random starting y position
-            duck1.setTranslateY(startingY);
-            duck1.setTranslateX(startingX);
-            duck1Animation = new Timeline();
-            duck1Animation.setCycleCount(Timeline.INDEFINITE); // duck animation repeats indefinitely
-            duck1Animation.getKeyFrames().add(ducks.get(0).getWingFlappingKeyFrame()); // adds wing flapping key frame
-            duck1Animation.getKeyFrames().add(ducks.get(0).getFlyingMotionKeyFrame()); // adds flying motion key frame
-            root.getChildren().add(duck1);
-            duck1Animation.play();
-        } else if (level == 2){ // level 2 has 1 duck that moves diagonally
-            ducks.add(new Duck(duck1Color, scale, true, scaledWidth, scaledHeight)); // creates a duck object that moves diagonally
-            duck1 = ducks.get(0).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck1.setTranslateY(startingY);
-            duck1.setTranslateX(startingX);
-            duck1Animation = new Timeline();
-            duck1Animation.setCycleCount(Timeline.INDEFINITE);
-            duck1Animation.getKeyFrames().add(ducks.get(0).getWingFlappingKeyFrame());
-            duck1Animation.getKeyFrames().add(ducks.get(0).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck1);
-            duck1Animation.play();
-        } else if (level == 3){ // level 3 has 2 ducks that move horizontally
-            ducks.add(new Duck(duck1Color, scale, false, scaledWidth, scaledHeight));
-            ducks.add(new Duck(duck2Color, scale, false, scaledWidth, scaledHeight));
-            duck1 = ducks.get(0).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck1.setTranslateY(startingY);
-            duck1.setTranslateX(startingX);
-            duck1Animation = new Timeline();
-            duck1Animation.setCycleCount(Timeline.INDEFINITE);
-            duck1Animation.getKeyFrames().add(ducks.get(0).getWingFlappingKeyFrame());
-            duck1Animation.getKeyFrames().add(ducks.get(0).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck1);
-            duck1Animation.play();
-            duck2 = ducks.get(1).getDuckImageView();
-            if (whichHalf(startingX/scaledWidth)) {
-                minX = startingX/scaledWidth;
-            } else {
-                maxX = startingX/scaledWidth;
-            }
-            if (whichHalf(startingX/scaledHeight)) {
-                minY = startingY/scaledHeight;
-            } else {
-                maxY = startingY/scaledHeight;
-            }
-            System.out.println("minX: " + minX + " maxX: " + maxX + " minY: " + minY + " maxY: " + maxY);
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck2.setTranslateY(startingY);
-            duck2.setTranslateX(startingX);
-            duck2Animation = new Timeline();
-            duck2Animation.setCycleCount(Timeline.INDEFINITE);
-            duck2Animation.getKeyFrames().add(ducks.get(1).getWingFlappingKeyFrame());
-            duck2Animation.getKeyFrames().add(ducks.get(1).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck2);
-            duck2Animation.play();
-        } else if (level == 4){ // level 4 has 2 ducks that move diagonally
-            ducks.add(new Duck(duck1Color, scale, true, scaledWidth, scaledHeight));
-            ducks.add(new Duck(duck2Color, scale, true, scaledWidth, scaledHeight));
-            duck1 = ducks.get(0).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck1.setTranslateY(startingY);
-            duck1.setTranslateX(startingX);
-            duck1Animation = new Timeline();
-            duck1Animation.setCycleCount(Timeline.INDEFINITE);
-            duck1Animation.getKeyFrames().add(ducks.get(0).getWingFlappingKeyFrame());
-            duck1Animation.getKeyFrames().add(ducks.get(0).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck1);
-            duck1Animation.play();
-            duck2 = ducks.get(1).getDuckImageView();
-            if (whichHalf(startingX/scaledWidth)) {
-                minX = startingX/scaledWidth;
-            } else {
-                maxX = startingX/scaledWidth;
-            }
-            if (whichHalf(startingX/scaledHeight)) {
-                minY = startingY/scaledHeight;
-            } else {
-                maxY = startingY/scaledHeight;
-            }
-            System.out.println("minX: " + minX + " maxX: " + maxX + " minY: " + minY + " maxY: " + maxY);
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck2.setTranslateY(startingY);
-            duck2.setTranslateX(startingX);
-            duck2Animation = new Timeline();
-            duck2Animation.setCycleCount(Timeline.INDEFINITE);
-            duck2Animation.getKeyFrames().add(ducks.get(1).getWingFlappingKeyFrame());
-            duck2Animation.getKeyFrames().add(ducks.get(1).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck2);
-            duck2Animation.play();
-        } else if (level == 5){ // level 5 has 3 ducks that move in mixed manner
-            ducks.add(new Duck(duck1Color, scale, true, scaledWidth, scaledHeight));
-            ducks.add(new Duck(duck2Color, scale, true, scaledWidth, scaledHeight));
-            ducks.add(new Duck(duck3Color, scale, false, scaledWidth, scaledHeight));
-            duck1 = ducks.get(0).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck1.setTranslateY(startingY);
-            duck1.setTranslateX(startingX);
-            duck1Animation = new Timeline();
-            duck1Animation.setCycleCount(Timeline.INDEFINITE);
-            duck1Animation.getKeyFrames().add(ducks.get(0).getWingFlappingKeyFrame());
-            duck1Animation.getKeyFrames().add(ducks.get(0).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck1);
-            duck1Animation.play();
-            duck2 = ducks.get(1).getDuckImageView();
-            if (whichHalf(startingX/scaledWidth)) {
-                minX = startingX/scaledWidth;
-            } else {
-                maxX = startingX/scaledWidth;
-            }
-            if (whichHalf(startingX/scaledHeight)) {
-                minY = startingY/scaledHeight;
-            } else {
-                maxY = startingY/scaledHeight;
-            }
-            System.out.println("minX: " + minX + " maxX: " + maxX + " minY: " + minY + " maxY: " + maxY);
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck2.setTranslateY(startingY);
-            duck2.setTranslateX(startingX);
-            ducks.get(1).setSpeed(1.10); // set speed of duck2 to be faster to make it more challenging
-            duck2Animation = new Timeline();
-            duck2Animation.setCycleCount(Timeline.INDEFINITE);
-            duck2Animation.getKeyFrames().add(ducks.get(1).getWingFlappingKeyFrame());
-            duck2Animation.getKeyFrames().add(ducks.get(1).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck2);
-            duck2Animation.play();
-            duck3 = ducks.get(2).getDuckImageView();
-            if (whichHalf(startingX/scaledWidth)) {
-                minX = startingX/scaledWidth;
-            } else {
-                maxX = startingX/scaledWidth;
-            }
-            if (whichHalf(startingX/scaledHeight)) {
-                minY = startingY/scaledHeight;
-            } else {
-                maxY = startingY/scaledHeight;
+        root.getChildren().add(topHBox); // the texts are above the foreground, like the texts of the canvas renderer
+        loadLevel(spec);
+    }
+
+    /**
+     * This method creates a layer of the scene that does not change, like the background or the foreground.
+     * The layer is cached as a bitmap of its size on screen, so the image is not scaled and composited again
+     * on every frame, only copied.
+     * @param image The image of the layer.
+     * @param width The width of the layer in the scene.
+     * @param height The height of the layer in the scene.
+     * @return the image view of the layer
+     */
+    public static ImageView createStaticLayer(Image image, double width, double height) {
+        ImageView layer = new ImageView(image);
+        layer.setFitWidth(width);
+        layer.setFitHeight(height);
+        layer.setCache(true);
+        return layer;
+    }
+
+    /**
+     * This method loads a level into the scene, reusing the scene and its nodes.
+     * If the level was prepared with prepareLevel, the prepared level is swapped in,
+     * otherwise it is seeded from the random number generator of the session.
+     * @param spec The specification of the level.
+     */
+    public void loadLevel(LevelSpec spec) {
+        if (preparedLevel != null) {
+            LevelSimulation prepared = preparedLevel.join(); // usually ready long before, it is prepared while the level complete music plays
+            preparedLevel = null;
+            if (prepared.getSpec().getLevel() == spec.getLevel() && prepared.getSpec().isWave() == spec.isWave()) {
+                spareSimulation = simulation;
+                simulation = prepared;
+                showLevel(spec, true);
+                return;
             }
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck3.setTranslateY(startingY);
-            duck3.setTranslateX(startingX);
-            ducks.get(2).setSpeed(1.15); // set speed of duck3 to be faster to make it more challenging
-            duck3Animation = new Timeline();
-            duck3Animation.setCycleCount(Timeline.INDEFINITE);
-            duck3Animation.getKeyFrames().add(ducks.get(2).getWingFlappingKeyFrame());
-            duck3Animation.getKeyFrames().add(ducks.get(2).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck3);
-            duck3Animation.play();
-        } else if (level == 6){ // level 6 has 3 ducks that move diagonally
-            ducks.add(new Duck(duck1Color, scale, true, scaledWidth, scaledHeight));
-            ducks.add(new Duck(duck2Color, scale, true, scaledWidth, scaledHeight));
-            ducks.add(new Duck(duck3Color, scale, true, scaledWidth, scaledHeight));
-            duck1 = ducks.get(0).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck1.setTranslateY(startingY);
-            duck1.setTranslateX(startingX);
-            ducks.get(0).setSpeed(1.25); // set speed of duck1 to be faster to make it more challenging
-            duck1Animation = new Timeline();
-            duck1Animation.setCycleCount(Timeline.INDEFINITE);
-            duck1Animation.getKeyFrames().add(ducks.get(0).getWingFlappingKeyFrame());
-            duck1Animation.getKeyFrames().add(ducks.get(0).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck1);
-            duck1Animation.play();
-            duck2 = ducks.get(1).getDuckImageView();
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            if (whichHalf(startingX/scaledWidth)) {
-                minX = startingX/scaledWidth;
-            } else {
-                maxX = startingX/scaledWidth;
+            spareSimulation = prepared; // another level was asked for, the prepared one is not used
+        }
+        loadLevel(spec, GameRandom.nextSeed());
+    }
+
+    /**
+     * This method loads a level into the scene, reusing the scene and its nodes.
+     * @param spec The specification of the level.
+     * @param levelSeed The seed of the level, the same seed places the same ducks.
+     */
+    public void loadLevel(LevelSpec spec, long levelSeed) {
+        simulation.load(spec, levelSeed); // places the ducks described by the level specification, 1, 1, 2, 2, 3, 3 ducks with 3 bullets each
+        showLevel(spec, false);
+    }
+
+    /**
+     * This method prepares a level in the background, so that it can be started without delay by loadLevel.
+     * The ducks of the level are placed in a simulation of their own, and the frames of the ducks are decoded,
+     * while the current level is still shown. Only the scene nodes are updated when the level is started.
+     * @param spec The specification of the level.
+     * @param executor The executor the level is prepared on.
+     */
+    public void prepareLevel(LevelSpec spec, Executor executor) {
+        if (preparedLevel != null) { // the level is already being prepared
+            return;
+        }
+        LevelSimulation next = spareSimulation != null ? spareSimulation : new LevelSimulation(scale, scaledWidth, scaledHeight);
+        spareSimulation = null;
+        long levelSeed = GameRandom.nextSeed(); // drawn on this thread, so the seeds are drawn in the order of the levels
+        preparedLevel = CompletableFuture.supplyAsync(() -> {
+            next.load(spec, levelSeed);
+            for (int i = 0; i < next.getModels().size(); i++) { // the frames of the ducks are decoded into the sprite cache
+                decodeFrames(next.getColor(i), next.getModels().get(i).isMovesDiagonal());
             }
-            if (whichHalf(startingX/scaledHeight)) {
-                minY = startingY/scaledHeight;
-            } else {
-                maxY = startingY/scaledHeight;
+            if (spec.isWave()) { // the ducks that spawn later in a wave can have any color and motion
+                for (String color : LevelSpec.COLORS) {
+                    decodeFrames(color, false);
+                    decodeFrames(color, true);
+                }
             }
-            System.out.println("minX: " + minX + " maxX: " + maxX + " minY: " + minY + " maxY: " + maxY);
-            duck2.setTranslateY(startingY);
-            duck2.setTranslateX(startingX);
-            ducks.get(1).setSpeed(1.5); // set speed of duck2 to be faster to make it more challenging
-            duck2Animation = new Timeline();
-            duck2Animation.setCycleCount(Timeline.INDEFINITE);
-            duck2Animation.getKeyFrames().add(ducks.get(1).getWingFlappingKeyFrame());
-            duck2Animation.getKeyFrames().add(ducks.get(1).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck2);
-            duck2Animation.play();
-            duck3 = ducks.get(2).getDuckImageView();
-            if (whichHalf(startingX/scaledWidth)) {
-                minX = startingX/scaledWidth;
-            } else {
-                maxX = startingX/scaledWidth;
+            return next;
+        }, executor);
+    }
+
+    /**
+     * This method decodes the frames of a duck into the sprite cache, so that they are not decoded when the duck is shown.
+     * @param duckColor The color of the duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     */
+    private void decodeFrames(String duckColor, boolean movesDiagonal) {
+        for (int f = 0; f < DuckFrames.FRAME_COUNT; f++) {
+            SpriteCache.getDuckFrame(duckColor, DuckFrames.getFrameNumber(movesDiagonal, f), scale);
+        }
+    }
+
+    /**
+     * This method shows the loaded simulation: the ducks of the previous level are returned to the duck pool,
+     * and the ducks of the new level are taken from it. It also resets the ammo count and level number,
+     * and starts the game loop if it is not running.
+     * @param spec The specification of the level.
+     * @param prepared Whether the level was prepared in the background.
+     */
+    private void showLevel(LevelSpec spec, boolean prepared) {
+        GameEvents.LevelStarted event = new GameEvents.LevelStarted();
+        event.begin();
+        releaseDucks();
+        inputQueue.clear(); // the shots of the previous level are not carried over
+        inputQueue.getLatencyHistogram().reset(); // the shot latencies are measured for every level
+        levelText.setText(spec.isWave() ? "Wave " + spec.getLevel() : "Level " + spec.getLevel() + "/" + LevelSpec.LEVEL_COUNT);
+        updateAmmoText();
+        ArrayList<DuckModel> models = simulation.getModels();
+        for (int i = 0; i < models.size(); i++) { // a duck renders every model of the simulation
+            Duck duck = DuckPool.acquire(simulation.getColor(i), scale, models.get(i).isMovesDiagonal(), models.get(i)); // ducks of the previous levels are reused
+            ducks.add(duck);
+            duckImageViews.add(duck.getDuckImageView());
+        }
+        if (canvasRenderer != null) {
+            canvasRenderer.render(ducks); // the first frame is drawn before the game loop runs
+        } else {
+            duckLayer.getChildren().setAll(duckImageViews);
+        }
+        GameLog.debug("spritecache.stats", "hits", SpriteCache.getHitCount(), "misses", SpriteCache.getMissCount());
+        simulation.updateSpatialGrid(); // the ducks can be shot before the first step
+        gameLoop.start(); // start animating the ducks
+        event.level = spec.getLevel();
+        event.duckCount = spec.getDuckCount();
+        event.ammo = simulation.getAmmoCount();
+        event.prepared = prepared;
+        event.commit();
+    }
+
+    /**
+     * This method advances all the duck models by one simulation step, without rendering them.
+     * The ducks whose models were reset to a new duck of the level get the images of the new duck.
+     */
+    private void tickLevel() {
+        simulation.tick();
+        for (int r = 0; r < simulation.getRespawnCount(); r++) {
+            int i = simulation.getRespawn(r);
+            if (i < ducks.size()) {
+                Duck duck = ducks.get(i);
+                duck.reset(simulation.getColor(i), simulation.getScale(), duck.getModel().isMovesDiagonal(), duck.getModel());
             }
-            if (whichHalf(startingX/scaledHeight)) {
-                minY = startingY/scaledHeight;
-            } else {
-                maxY = startingY/scaledHeight;
+        }
+    }
+
+    /**
+     * This method renders the ducks at the state of the last step, either to their ImageViews or into the canvas.
+     */
+    private void renderDucks() {
+        if (canvasRenderer != null) {
+            canvasRenderer.render(ducks);
+        } else {
+            for (int i = 0; i < ducks.size(); i++) {
+                ducks.get(i).render();
             }
-            System.out.println("minX: " + minX + " maxX: " + maxX + " minY: " + minY + " maxY: " + maxY);
-            startingX = scaledWidth *(random.nextDouble()*(maxX-minX)+minX);
-            startingY = scaledHeight*(random.nextDouble()*(maxY-minY)+minY);
-            duck3.setTranslateY(startingY);
-            duck3.setTranslateX(startingX);
-            ducks.get(2).setSpeed(1.75); // set speed of duck3 to be faster to make it more challenging
-            duck3Animation = new Timeline();
-            duck3Animation.setCycleCount(Timeline.INDEFINITE);
-            duck3Animation.getKeyFrames().add(ducks.get(2).getWingFlappingKeyFrame());
-            duck3Animation.getKeyFrames().add(ducks.get(2).getFlyingMotionKeyFrame());
-            root.getChildren().add(duck3);
-            duck3Animation.play();
         }
-        ImageView foregroundView = new ImageView(foregroundImage);
-        root.getChildren().add(foregroundView); // add foreground image to scene
+    }
+
+    /**
+     * This method returns the ducks of the level to the duck pool and removes them from the scene.
+     */
+    public void releaseDucks() {
+        for (Duck duck : ducks) {
+            DuckPool.release(duck);
+        }
+        ducks.clear();
+        duckImageViews.clear();
+        duckLayer.getChildren().clear();
+        simulation.getSpatialGrid().clear();
     }
 
     /**
@@ -313,40 +288,65 @@ public class LevelScreen extends Scene {
         return this;
     }
     /**
-     * This method updates the ammo text
+     * This method updates the ammo text to the ammo left in the simulation
      */
     public void updateAmmoText() {
-        ammoCount--;
-        ammoText.setText("Ammo Left: " + ammoCount);
+        ammoText.setText("Ammo Left: " + simulation.getAmmoCount());
     }
     /**
      * This method returns the ammo count
      * @return the ammo count
      */
     public Integer getAmmoCount() {
-        return ammoCount;
+        return simulation.getAmmoCount();
     }
     /**
      * This method returns the duck image views
      * @return the duck image views in an arraylist
      */
     public ArrayList<ImageView> getDuckImageViews() {
-        ArrayList<ImageView> ducks = new ArrayList<>();
-        ducks.add(duck1);
-        ducks.add(duck2);
-        ducks.add(duck3);
-        return ducks;
+        return duckImageViews;
+    }
+    /**
+     * This method returns the game loop of the level
+     * @return the game loop that animates the ducks
+     */
+    public GameLoop getGameLoop() {
+        return gameLoop;
+    }
+    /**
+     * This method returns the canvas renderer of the level
+     * @return the renderer that draws the level into a canvas, or null if every duck is a node
+     */
+    public CanvasRenderer getCanvasRenderer() {
+        return canvasRenderer;
+    }
+    /**
+     * This method returns the queue of the shots of the level
+     * @return the input queue that the game loop handles at the start of every frame
+     */
+    public InputQueue getInputQueue() {
+        return inputQueue;
+    }
+    /**
+     * This method returns the spatial grid of the ducks, rebuilt on every simulation step
+     * @return the spatial grid used to find the ducks that may be hit by a shot
+     */
+    public SpatialGrid getSpatialGrid() {
+        return simulation.getSpatialGrid();
     }
     /**
-     * This method returns the duck animations
-     * @return the duck animations in an arraylist
+     * This method returns the simulation of the level
+     * @return the simulation of the ducks, the ammo and the shots that the scene renders
      */
-    public ArrayList<Timeline> getDuckAnimations() {
-        ArrayList<Timeline> duckAnimations = new ArrayList<>();
-        duckAnimations.add(duck1Animation);
-        duckAnimations.add(duck2Animation);
-        duckAnimations.add(duck3Animation);
-        return duckAnimations;
+    public LevelSimulation getSimulation() {
+        return simulation;
+    }
+    /**
+     * This method stops the animation of the ducks, it should be called when the level is left
+     */
+    public void stopAnimation() {
+        gameLoop.stop();
     }
     /**
      * This method returns the Duck objects
@@ -361,15 +361,9 @@ public class LevelScreen extends Scene {
      * @return the bird count
      */
     public int getDuckCount() {
-        return birdCount;
+        return simulation.getDuckCount();
     }
 
-    /**
-     * This method updates the bird count
-     */
-    public void duckShot(){
-        birdCount--;
-    }
     /**
      * This method returns the scaled height of the scene
      * @return the scaled height of the scene
@@ -377,13 +371,4 @@ public class LevelScreen extends Scene {
     public double getScaledHeight() {
         return scaledHeight;
     }
-
-    /**
-     * This method decides whether the passed location is greater than or less than 0.5
-     * @param location the location component to be compared
-     * @return true if the location is less than 0.5, false otherwise
-     */
-    private Boolean whichHalf(double location) {
-        return location < 0.5;
-    }
 }
@@ -0,0 +1,350 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This class simulates a level of the game without JavaFX: the duck models, the spatial grid, the ammo and the shots.
+ * A level is loaded from its specification and a seed, and every random choice of the level is drawn from that seed
+ * in a fixed order, so the same seed and the same shots at the same simulation steps always give the same result.
+ * The LevelScreen renders a simulation, and replays and tools run it on its own.
+ * A level can have more ducks than fly at the same time, like the waves of the endless mode: then a shot duck that has
+ * landed is reset in place to the next duck of the level, so the models of a level never grow past its active limit.
+ */
+public class LevelSimulation {
+    public static final double STEP = 1.0 / 60; // the fixed simulation step, in seconds
+    private final double scale;
+    private final double sceneWidth;
+    private final double sceneHeight;
+    private final SpatialGrid spatialGrid;
+    private final ArrayList<DuckModel> models = new ArrayList<>(); // the ducks of the level
+    private final ArrayList<String> colors = new ArrayList<>(); // the colors of the ducks of the level
+    private final ArrayList<DuckModel> freeModels = new ArrayList<>(); // the models of the previous levels, reused by the next levels
+    private int[] hits = new int[0]; // the indexes of the ducks hit by the last shot
+    private int hitCount;
+    private int[] respawns = new int[0]; // the indexes of the ducks that were reset to a new duck in the last step
+    private int respawnCount;
+    private Random random; // the random number generator of the level, the ducks that spawn later are drawn from it too
+    private int spawnedCount; // the number of ducks of the level that have been placed in the sky
+    private LevelSpec spec;
+    private long seed;
+    private int ammoCount;
+    private int duckCount; // the number of ducks that are not shot
+    private long tickCount; // the number of simulation steps since the level was loaded
+
+    /**
+     * This constructor creates the simulation of a scene.
+     * @param scale The scale of the game visuals.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     */
+    public LevelSimulation(double scale, double sceneWidth, double sceneHeight) {
+        this.scale = scale;
+        this.sceneWidth = sceneWidth;
+        this.sceneHeight = sceneHeight;
+        spatialGrid = new SpatialGrid(sceneWidth, sceneHeight, 40 * scale); // the cells are a bit larger than a duck frame
+    }
+
+    /**
+     * This method loads a level, replacing the ducks of the previous level.
+     * The ducks spawn between 5% and 85% of the scene from the left edge, and between 5% and 40% from the top,
+     * and they are kept a duck size apart, so they do not start on top of each other.
+     * @param levelSpec The specification of the level.
+     * @param levelSeed The seed every random choice of the level is drawn from.
+     */
+    public void load(LevelSpec levelSpec, long levelSeed) {
+        spec = levelSpec;
+        seed = levelSeed;
+        freeModels.addAll(models);
+        models.clear();
+        colors.clear();
+        duckCount = spec.getDuckCount();
+        ammoCount = spec.getAmmoCount();
+        tickCount = 0;
+        hitCount = 0;
+        respawnCount = 0;
+        random = new Random(levelSeed);
+        spawnedCount = spec.getActiveLimit(); // all the ducks of a level of the game, the first ones of a wave
+        double[] startingPositions = new SpawnPlacer(random.nextLong()).place(spawnedCount, sceneWidth*0.05, sceneHeight*0.05, sceneWidth*0.85, sceneHeight*0.4, 34*scale);
+        for (int i = 0; i < spawnedCount; i++) {
+            String duckColor = spec.getColorPolicy().pickColor(i, random);
+            boolean movesDiagonal = spec.getMotionType(i) == LevelSpec.MotionType.DIAGONAL;
+            DuckModel model = acquireModel(duckColor, movesDiagonal);
+            model.setMovesUpFirst(random.nextBoolean()); // randomly choose whether the duck moves up or down first, to make it more realistic
+            model.setPosition(startingPositions[2*i], startingPositions[2*i+1]);
+            if (spec.getSpeedMultiplier(i) != 1.0) {
+                model.setSpeed(spec.getSpeedMultiplier(i)); // the ducks of the last levels are faster to make them more challenging
+            }
+            models.add(model);
+            colors.add(duckColor);
+        }
+        if (respawns.length < models.size()) {
+            respawns = new int[models.size()];
+        }
+        if (hits.length < models.size()) {
+            hits = new int[models.size()]; // a shot can hit every duck of the level
+        }
+        updateSpatialGrid(); // the ducks can be shot before the first step
+    }
+
+    /**
+     * This method returns a model of a previous level reset to a new duck, or a new model.
+     * @param duckColor The color of the duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     * @return the model of the duck
+     */
+    private DuckModel acquireModel(String duckColor, boolean movesDiagonal) {
+        if (freeModels.isEmpty()) {
+            return DuckFrames.createModel(duckColor, movesDiagonal, scale, sceneWidth, sceneHeight);
+        }
+        DuckModel model = freeModels.remove(freeModels.size() - 1);
+        resetModel(model, duckColor, movesDiagonal);
+        return model;
+    }
+
+    /**
+     * This method resets a model to a new duck, keeping its frame size arrays.
+     * @param model The model to be reset.
+     * @param duckColor The color of the duck.
+     * @param movesDiagonal Whether the duck moves diagonally or not.
+     */
+    private void resetModel(DuckModel model, String duckColor, boolean movesDiagonal) {
+        double[] widths = model.getFrameWidths();
+        double[] heights = model.getFrameHeights();
+        DuckFrames.getFrameSizes(duckColor, movesDiagonal, scale, widths, heights);
+        model.reset(movesDiagonal, widths, heights, DuckFrames.FLYING_FRAME_COUNT, 10 * scale, sceneWidth, sceneHeight);
+    }
+
+    /**
+     * This method advances all the ducks by one simulation step and rebuilds the spatial grid.
+     * If the level has ducks that have not spawned yet, the ducks that have landed are reset to them,
+     * and their indexes are returned by getRespawn until the next step.
+     */
+    public void tick() {
+        respawnCount = 0;
+        for (int i = 0; i < models.size(); i++) {
+            models.get(i).step(STEP);
+        }
+        for (int i = 0; i < models.size() && spawnedCount < spec.getDuckCount(); i++) {
+            if (models.get(i).hasLanded()) {
+                respawn(i);
+            }
+        }
+        updateSpatialGrid();
+        tickCount++;
+    }
+
+    /**
+     * This method resets a duck that has landed to the next duck of the level, at a random point of the spawn area.
+     * The new duck is not kept apart from the others like the first ducks, a duck flying over another one is not a problem.
+     * @param duckIndex The index of the duck that has landed.
+     */
+    private void respawn(int duckIndex) {
+        int i = spawnedCount++; // the index of the new duck in the level specification
+        String duckColor = spec.getColorPolicy().pickColor(i, random);
+        boolean movesDiagonal = spec.getMotionType(i) == LevelSpec.MotionType.DIAGONAL;
+        DuckModel model = models.get(duckIndex);
+        resetModel(model, duckColor, movesDiagonal);
+        model.setMovesUpFirst(random.nextBoolean());
+        model.setPosition(sceneWidth*0.05 + random.nextDouble()*sceneWidth*0.8, sceneHeight*0.05 + random.nextDouble()*sceneHeight*0.35);
+        if (spec.getSpeedMultiplier(i) != 1.0) {
+            model.setSpeed(spec.getSpeedMultiplier(i));
+        }
+        colors.set(duckIndex, duckColor);
+        respawns[respawnCount++] = duckIndex;
+    }
+
+    /**
+     * This method rebuilds the spatial grid with the bounds of the ducks that can still be shot.
+     */
+    public void updateSpatialGrid() {
+        spatialGrid.clear();
+        for (int i = 0; i < models.size(); i++) {
+            DuckModel model = models.get(i);
+            if (!model.isShot()) { // shot ducks can not be hit again
+                spatialGrid.insert(i, model.getMinX() - 1, model.getMinY() - 1, model.getMaxX(), model.getMaxY()); // the shot is 1x1, so the bounds are grown by 1
+            }
+        }
+    }
+
+    /**
+     * This method returns whether the player can shoot, that is whether there is ammo left and there are ducks left
+     * @return true if a shot can be fired
+     */
+    public boolean canShoot() {
+        return ammoCount > 0 && duckCount > 0;
+    }
+
+    /**
+     * This method fires a shot: it uses a bullet and shoots the ducks at the point of the shot.
+     * The shot ducks start falling on the next step. The indexes of the shot ducks are returned by getHit.
+     * @param x The x coordinate of the shot.
+     * @param y The y coordinate of the shot.
+     * @return the number of ducks hit by the shot, or -1 if the shot can not be fired
+     */
+    public int shoot(double x, double y) {
+        hitCount = 0;
+        if (!canShoot()) {
+            return -1;
+        }
+        ammoCount--;
+        int candidateCount = spatialGrid.query(x, y); // only the ducks in the grid cell of the shot can be hit
+        for (int c = 0; c < candidateCount && duckCount > 0; c++) {
+            int i = spatialGrid.getResult(c);
+            DuckModel model = models.get(i);
+            if (model.isHit(x, y)) {
+                model.setShot(true); // the shot duck falls
+                duckCount--;
+                hits[hitCount++] = i;
+            }
+        }
+        return hitCount;
+    }
+
+    /**
+     * This method returns the number of ducks that could be hit by a shot at a point, before the shot is fired
+     * @param x the x coordinate of the shot
+     * @param y the y coordinate of the shot
+     * @return the number of ducks in the grid cell of the point
+     */
+    public int getCandidateCount(double x, double y) {
+        return spatialGrid.query(x, y);
+    }
+
+    /**
+     * This method returns a duck hit by the last shot
+     * @param hitIndex the index of the hit, below the number returned by shoot
+     * @return the index of the duck
+     */
+    public int getHit(int hitIndex) {
+        return hits[hitIndex];
+    }
+
+    /**
+     * This method returns the number of ducks that were reset to a new duck in the last step
+     * @return the number of respawned ducks
+     */
+    public int getRespawnCount() {
+        return respawnCount;
+    }
+
+    /**
+     * This method returns a duck that was reset to a new duck in the last step, its renderer has to show the new duck
+     * @param respawnIndex the index of the respawn, below the number returned by getRespawnCount
+     * @return the index of the duck
+     */
+    public int getRespawn(int respawnIndex) {
+        return respawns[respawnIndex];
+    }
+
+    /**
+     * This method returns the number of ducks of the level that have been placed in the sky, shot or not
+     * @return the number of spawned ducks
+     */
+    public int getSpawnedCount() {
+        return spawnedCount;
+    }
+
+    /**
+     * This method returns whether the level is completed, that is whether all the ducks are shot
+     * @return true if the level is completed
+     */
+    public boolean isComplete() {
+        return duckCount == 0;
+    }
+
+    /**
+     * This method returns whether the level is failed, that is whether the ammo is used up while there are ducks left
+     * @return true if the level is failed
+     */
+    public boolean isFailed() {
+        return ammoCount == 0 && duckCount > 0;
+    }
+
+    /**
+     * This method returns the models of the ducks of the level
+     * @return the duck models, in the order of the ducks
+     */
+    public ArrayList<DuckModel> getModels() {
+        return models;
+    }
+
+    /**
+     * This method returns the color of a duck
+     * @param duckIndex the index of the duck
+     * @return the color of the duck
+     */
+    public String getColor(int duckIndex) {
+        return colors.get(duckIndex);
+    }
+
+    /**
+     * This method returns the spatial grid of the ducks, rebuilt on every simulation step
+     * @return the spatial grid used to find the ducks that may be hit by a shot
+     */
+    public SpatialGrid getSpatialGrid() {
+        return spatialGrid;
+    }
+
+    /**
+     * This method returns the scale of the game visuals
+     * @return the scale the ducks are simulated at
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * This method returns the width of the scene
+     * @return the width of the scene
+     */
+    public double getSceneWidth() {
+        return sceneWidth;
+    }
+
+    /**
+     * This method returns the height of the scene
+     * @return the height of the scene
+     */
+    public double getSceneHeight() {
+        return sceneHeight;
+    }
+
+    /**
+     * This method returns the specification of the loaded level
+     * @return the level specification
+     */
+    public LevelSpec getSpec() {
+        return spec;
+    }
+
+    /**
+     * This method returns the seed the level was loaded with
+     * @return the seed of the level
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * This method returns the ammo left
+     * @return the number of shots left
+     */
+    public int getAmmoCount() {
+        return ammoCount;
+    }
+
+    /**
+     * This method returns the number of ducks that are not shot
+     * @return the number of ducks left
+     */
+    public int getDuckCount() {
+        return duckCount;
+    }
+
+    /**
+     * This method returns the number of simulation steps since the level was loaded
+     * @return the number of simulation steps
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Random;
+
+/**
+ * This class describes a level of the game: how many ducks it has, how every duck moves, how fast it is,
+ * and how the colors of the ducks are chosen. The LevelScreen builds its ducks from this description.
+ */
+public class LevelSpec {
+    public static final int LEVEL_COUNT = 6; // the number of levels of the game
+    private static final int AMMO_PER_DUCK = 3; // the player has 3 shots for every duck
+    public static final String[] COLORS = {"red", "blue", "black"}; // the colors of the ducks
+
+    /**
+     * The motion of a duck.
+     */
+    public enum MotionType {
+        HORIZONTAL, // the duck flies horizontally, zig-zagging up and down
+        DIAGONAL // the duck flies diagonally, bouncing off the edges of the scene
+    }
+
+    /**
+     * The way the colors of the ducks are chosen.
+     */
+    public enum ColorPolicy {
+        RANDOM, // every duck gets a random color, to add variety
+        CYCLE; // the ducks get red, blue and black in turn
+
+        /**
+         * This method returns the color of a duck.
+         * @param duckIndex The index of the duck in the level.
+         * @param random The random number generator.
+         * @return the color of the duck
+         */
+        public String pickColor(int duckIndex, Random random) {
+            if (this == CYCLE) {
+                return COLORS[duckIndex % COLORS.length];
+            }
+            return COLORS[random.nextInt(COLORS.length)];
+        }
+    }
+
+    private final int level;
+    private final MotionType[] motionTypes;
+    private final double[] speedMultipliers;
+    private final ColorPolicy colorPolicy;
+    private final int ammoCount;
+    private final int activeLimit; // the most ducks in the sky at the same time, the others spawn when the shot ones have landed
+    private final boolean wave; // whether this is a wave of the endless mode instead of a level of the game
+
+    /**
+     * This constructor creates a level description, where all the ducks fly at the same time and every duck has 3 shots.
+     * @param level The level number.
+     * @param motionTypes The motion of every duck, the length is the number of ducks.
+     * @param speedMultipliers The speed multiplier of every duck.
+     * @param colorPolicy The way the colors of the ducks are chosen.
+     */
+    public LevelSpec(int level, MotionType[] motionTypes, double[] speedMultipliers, ColorPolicy colorPolicy) {
+        this(level, motionTypes, speedMultipliers, colorPolicy, motionTypes.length * AMMO_PER_DUCK, motionTypes.length, false);
+    }
+
+    /**
+     * This constructor creates a level description.
+     * @param level The level or wave number.
+     * @param motionTypes The motion of every duck, the length is the number of ducks.
+     * @param speedMultipliers The speed multiplier of every duck.
+     * @param colorPolicy The way the colors of the ducks are chosen.
+     * @param ammoCount The number of shots the player has.
+     * @param activeLimit The most ducks in the sky at the same time, the next duck spawns when a shot duck has landed.
+     * @param wave Whether this is a wave of the endless mode.
+     */
+    public LevelSpec(int level, MotionType[] motionTypes, double[] speedMultipliers, ColorPolicy colorPolicy, int ammoCount, int activeLimit, boolean wave) {
+        if (motionTypes.length != speedMultipliers.length) {
+            throw new IllegalArgumentException("Every duck needs a motion type and a speed multiplier");
+        }
+        if (activeLimit < 1 || activeLimit > motionTypes.length) {
+            throw new IllegalArgumentException("The active ducks must be between 1 and the number of ducks");
+        }
+        this.level = level;
+        this.motionTypes = motionTypes.clone();
+        this.speedMultipliers = speedMultipliers.clone();
+        this.colorPolicy = colorPolicy;
+        this.ammoCount = ammoCount;
+        this.activeLimit = activeLimit;
+        this.wave = wave;
+    }
+
+    /**
+     * This method returns the description of a level of the game.
+     * The ducks get faster on the last levels to make them more challenging.
+     * @param level The level number, between 1 and LEVEL_COUNT.
+     * @return the description of the level
+     */
+    public static LevelSpec forLevel(int level) {
+        MotionType horizontal = MotionType.HORIZONTAL;
+        MotionType diagonal = MotionType.DIAGONAL;
+        switch (level) {
+            case 1: // level 1 has 1 duck that moves horizontally
+                return new LevelSpec(1, new MotionType[]{horizontal}, new double[]{1.0}, ColorPolicy.RANDOM);
+            case 2: // level 2 has 1 duck that moves diagonally
+                return new LevelSpec(2, new MotionType[]{diagonal}, new double[]{1.0}, ColorPolicy.RANDOM);
+            case 3: // level 3 has 2 ducks that move horizontally
+                return new LevelSpec(3, new MotionType[]{horizontal, horizontal}, new double[]{1.0, 1.0}, ColorPolicy.RANDOM);
+            case 4: // level 4 has 2 ducks that move diagonally
+                return new LevelSpec(4, new MotionType[]{diagonal, diagonal}, new double[]{1.0, 1.0}, ColorPolicy.RANDOM);
+            case 5: // level 5 has 3 ducks that move in mixed manner
+                return new LevelSpec(5, new MotionType[]{diagonal, diagonal, horizontal}, new double[]{1.0, 1.10, 1.15}, ColorPolicy.RANDOM);
+            case 6: // level 6 has 3 ducks that move diagonally
+                return new LevelSpec(6, new MotionType[]{diagonal, diagonal, diagonal}, new double[]{1.25, 1.5, 1.75}, ColorPolicy.RANDOM);
+            default:
+                throw new IllegalArgumentException("There is no level " + level);
+        }
+    }
+
+    /**
+     * This method returns a copy of the level with other speed multipliers, to compare the difficulty of different speeds.
+     * @param multipliers The speed multiplier of every duck.
+     * @return the description of the level with the given speeds
+     */
+    public LevelSpec withSpeedMultipliers(double[] multipliers) {
+        return new LevelSpec(level, motionTypes, multipliers, colorPolicy, ammoCount, activeLimit, wave);
+    }
+
+    /**
+     * This method returns the level number
+     * @return the level number
+     */
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * This method returns the number of ducks in the level
+     * @return the number of ducks
+     */
+    public int getDuckCount() {
+        return motionTypes.length;
+    }
+
+    /**
+     * This method returns the number of shots the player has in the level
+     * @return the ammo count of the level
+     */
+    public int getAmmoCount() {
+        return ammoCount;
+    }
+
+    /**
+     * This method returns the most ducks in the sky at the same time
+     * @return the number of ducks placed when the level starts, the others spawn one by one as the shot ducks land
+     */
+    public int getActiveLimit() {
+        return activeLimit;
+    }
+
+    /**
+     * This method returns whether the level is a wave of the endless mode
+     * @return true for a wave, false for a level of the game
+     */
+    public boolean isWave() {
+        return wave;
+    }
+
+    /**
+     * This method returns the motion of a duck
+     * @param duckIndex the index of the duck
+     * @return the motion type of the duck
+     */
+    public MotionType getMotionType(int duckIndex) {
+        return motionTypes[duckIndex];
+    }
+
+    /**
+     * This method returns the speed multiplier of a duck
+     * @param duckIndex the index of the duck
+     * @return the speed multiplier of the duck
+     */
+    public double getSpeedMultiplier(int duckIndex) {
+        return speedMultipliers[duckIndex];
+    }
+
+    /**
+     * This method returns the way the colors of the ducks are chosen
+     * @return the color policy of the level
+     */
+    public ColorPolicy getColorPolicy() {
+        return colorPolicy;
+    }
+}
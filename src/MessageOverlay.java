@@ -0,0 +1,74 @@
+import javafx.animation.Animation;
+import javafx.animation.FadeTransition;
+import javafx.geometry.Pos;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import javafx.util.Duration;
+
+/**
+ * This class is the overlay that shows a message over the level screen, like "GAME OVER" or "YOU WIN!".
+ * It has a title and a blinking subtitle. The same overlay is reused for every message,
+ * its texts are changed instead of creating new nodes for every message.
+ */
+public class MessageOverlay extends StackPane {
+    private final Text titleText = new Text();
+    private final Text subtitleText = new Text();
+    private final FadeTransition fadeTransition;
+
+    /**
+     * This constructor creates the overlay.
+     * @param scale The scale of the game visuals.
+     */
+    public MessageOverlay(double scale) {
+        setAlignment(Pos.TOP_CENTER);
+        Color color = Color.rgb(241, 159, 20);
+        titleText.setTextAlignment(TextAlignment.CENTER);
+        titleText.setFill(color);
+        titleText.setFont(Font.font("Arial", FontWeight.BOLD, 15*scale));
+        subtitleText.setTextAlignment(TextAlignment.CENTER);
+        subtitleText.setFill(color);
+        subtitleText.setFont(Font.font("Arial", FontWeight.BOLD, 15*scale));
+        fadeTransition = new FadeTransition(Duration.seconds(0.6), subtitleText); // creating fade transition for the subtitle to make it blink
+        fadeTransition.setFromValue(1.0);
+        fadeTransition.setToValue(0.0);
+        fadeTransition.setCycleCount(Animation.INDEFINITE);
+        fadeTransition.setAutoReverse(true);
+        getChildren().addAll(titleText, subtitleText);
+    }
+
+    /**
+     * This method shows a message on top of a root pane, moving the overlay from its previous root if needed.
+     * @param root The root pane the overlay is shown on.
+     * @param title The title of the message.
+     * @param subtitle The blinking subtitle of the message.
+     * @param titleY The y position of the title.
+     * @param subtitleY The y position of the subtitle.
+     */
+    public void show(StackPane root, String title, String subtitle, double titleY, double subtitleY) {
+        titleText.setText(title);
+        titleText.setTranslateY(titleY);
+        subtitleText.setText(subtitle);
+        subtitleText.setTranslateY(subtitleY);
+        subtitleText.setOpacity(1.0);
+        if (getParent() != root) {
+            hide();
+            root.getChildren().add(this);
+        }
+        fadeTransition.playFromStart();
+        requestFocus();
+    }
+
+    /**
+     * This method removes the overlay from its root pane and stops the blinking.
+     */
+    public void hide() {
+        fadeTransition.stop();
+        if (getParent() instanceof StackPane) {
+            ((StackPane) getParent()).getChildren().remove(this);
+        }
+    }
+}
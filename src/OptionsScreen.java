@@ -1,3 +1,4 @@
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -9,53 +10,105 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
-import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This class is the scene for the options screen.
  * It contains the background images, crosshair images, and the text.
  * It also contains methods to change the background image and crosshair.
+ * The images are loaded by the AssetLoader in the background, an image that is not loaded yet is shown as soon as it is ready.
  */
 public class OptionsScreen extends Scene {
-    private final ArrayList<BackgroundImage> backgroundImages = new ArrayList<>();
-    private final ArrayList<Image> crosshairImages = new ArrayList<>();
+    private final BackgroundImage[] backgroundImages = new BackgroundImage[AssetLoader.BACKGROUND_COUNT]; // created once for every loaded background
+    private final AssetLoader assetLoader;
+    private final double scale;
     private final double scaledWidth;
     private final double scaledHeight;
+    private final ImageView crosshairView = new ImageView();
+    private int backgroundIndex = 0; // the index of the chosen background
+    private int crosshairIndex = 0; // the index of the chosen crosshair
     /**
      * This constructor creates the options screen.
      * @param root The root of the scene.
      * @param scale The scale of the scene.
+     * @param assetLoader The loader of the background and crosshair images.
      */
-    public OptionsScreen(StackPane root, double scale) {
+    public OptionsScreen(StackPane root, double scale, AssetLoader assetLoader) {
         super(root);
-        System.out.println("OptionsScreen");
-        Image img = new Image("file:../assets/background/1.png");
-        double imgWidth = img.getWidth();
-        scaledWidth = imgWidth*scale;
-        double imgHeight = img.getHeight();
-        scaledHeight = imgHeight*scale;
+        GameLog.debug("screen.create", "screen", "options");
+        this.assetLoader = assetLoader;
+        this.scale = scale;
+        scaledWidth = assetLoader.getBackgroundWidth()*scale;
+        scaledHeight = assetLoader.getBackgroundHeight()*scale;
         root.setPrefSize(scaledWidth, scaledHeight);
-        for (int i = 1; i <= 6; i++) { // loop through all the background images and add them to the arraylist
-            backgroundImages.add(new BackgroundImage(new Image("file:../assets/background/" + i + ".png"), BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(scaledWidth, scaledHeight, false, false, false, false)));
-        }
-        root.setBackground(new Background(backgroundImages.get(0))); // set the background to the first image
+        showBackground(root, 0); // set the background to the first image
         root.setAlignment(Pos.TOP_CENTER);
         root.setPadding(new Insets(scaledHeight*0.05, 0, 0, 0));
-        Text startText = new Text("USE ARROW KEYS TO NAVIGATE\nPRESS ENTER TO START\nPRESS ESC TO EXIT");
+        Text startText = new Text("USE ARROW KEYS TO NAVIGATE\nPRESS ENTER TO START\nPRESS F FOR FLOCK MODE\nPRESS E FOR ENDLESS MODE\nPRESS ESC TO EXIT");
         startText.setTextAlignment(TextAlignment.CENTER);
         Color color = Color.rgb(241, 159, 20);
         startText.setFill(color);
         startText.setFont(Font.font("Arial", FontWeight.BOLD, 7.5*scale));
         root.getChildren().add(startText);
-        for (int i = 1; i <= 7; i++) { // loop through all the crosshair images and add them to the arraylist
-            crosshairImages.add(new Image("file:../assets/crosshair/" + i + ".png"));
-        }
-        Image crosshair = crosshairImages.get(0);
-        ImageView crosshairView = new ImageView(crosshair); // set the crosshair to the first image
         crosshairView.setScaleX(scale); // scale the crosshair
         crosshairView.setScaleY(scale); // scale the crosshair
-        crosshairView.setTranslateY(scaledHeight*0.45-(crosshairView.getImage().getHeight()*scale)*0.5); // move the crosshair to the center of the screen vertically
         root.getChildren().add(crosshairView);
+        showCrosshair(0); // set the crosshair to the first image
+    }
+    /**
+     * This method shows a background, right away if it is loaded, or as soon as it is loaded.
+     * @param root The root of the scene.
+     * @param index The index of the background.
+     */
+    private void showBackground(StackPane root, int index) {
+        backgroundIndex = index;
+        CompletableFuture<Image> image = assetLoader.getBackground(index);
+        if (image.isDone()) {
+            root.setBackground(new Background(getBackgroundImage(index)));
+        } else {
+            image.thenRunAsync(() -> {
+                if (backgroundIndex == index) { // the background may have been changed while it was loading
+                    root.setBackground(new Background(getBackgroundImage(index)));
+                }
+            }, Platform::runLater);
+        }
+    }
+    /**
+     * This method shows a crosshair, right away if it is loaded, or as soon as it is loaded.
+     * @param index The index of the crosshair.
+     */
+    private void showCrosshair(int index) {
+        crosshairIndex = index;
+        CompletableFuture<Image> image = assetLoader.getCrosshair(index);
+        if (image.isDone()) {
+            setCrosshairImage(image.join());
+        } else {
+            image.thenAcceptAsync(loaded -> {
+                if (crosshairIndex == index) { // the crosshair may have been changed while it was loading
+                    setCrosshairImage(loaded);
+                }
+            }, Platform::runLater);
+        }
+    }
+    /**
+     * This method sets the image of the crosshair and moves it to the center of the screen vertically.
+     * @param crosshair The crosshair image.
+     */
+    private void setCrosshairImage(Image crosshair) {
+        crosshairView.setImage(crosshair);
+        crosshairView.setTranslateY(scaledHeight*0.45-(crosshair.getHeight()*scale)*0.5); // move the crosshair to the center of the screen vertically
+    }
+    /**
+     * This method returns the background image of an index, creating it when it is first needed.
+     * The background must be loaded.
+     * @param index The index of the background.
+     * @return The background image.
+     */
+    private BackgroundImage getBackgroundImage(int index) {
+        if (backgroundImages[index] == null) {
+            backgroundImages[index] = new BackgroundImage(assetLoader.getBackground(index).join(), BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(scaledWidth, scaledHeight, false, false, false, false));
+        }
+        return backgroundImages[index];
     }
     /**
      * This method changes the background image.
@@ -63,23 +116,15 @@ public class OptionsScreen extends Scene {
      * @param changeDirection The direction to change the background image, next or previous.
      */
     public void changeBackgroundImage(StackPane root, String changeDirection) {
-        System.out.println(root.getBackground().getImages().size());
         switch (changeDirection){
             case "next":
-                if (backgroundImages.indexOf(root.getBackground().getImages().get(0)) == backgroundImages.size() - 1) {
-                    root.setBackground(new Background(backgroundImages.get(0)));
-                } else {
-                    root.setBackground(new Background(backgroundImages.get(backgroundImages.indexOf(root.getBackground().getImages().get(0)) + 1)));
-                }
+                showBackground(root, (backgroundIndex + 1) % AssetLoader.BACKGROUND_COUNT); // after the last image comes the first image
                 break;
             case "previous":
-                if (backgroundImages.indexOf(root.getBackground().getImages().get(0)) == 0) {
-                    root.setBackground(new Background(backgroundImages.get(backgroundImages.size() - 1)));
-                } else {
-                    root.setBackground(new Background(backgroundImages.get(backgroundImages.indexOf(root.getBackground().getImages().get(0)) - 1)));
-                }
+                showBackground(root, (backgroundIndex + AssetLoader.BACKGROUND_COUNT - 1) % AssetLoader.BACKGROUND_COUNT); // before the first image comes the last image
                 break;
         }
+        GameLog.debug("options.background", "index", backgroundIndex + 1);
     }
     /**
      * This method changes the crosshair.
@@ -87,59 +132,42 @@ public class OptionsScreen extends Scene {
      * @param changeDirection The direction to change the crosshair, next or previous.
      */
     public void changeCrosshair(StackPane root, String changeDirection) {
-        ImageView crosshairView = new ImageView();
-        for (int i = 0; i < root.getChildren().size(); i++) { // loop through all the children of the root and find the crosshair
-            if (root.getChildren().get(i) instanceof ImageView) {
-                crosshairView = (ImageView) root.getChildren().get(i);
-            }
-        }
         switch (changeDirection){ // change the crosshair to the next or previous image
             case "next":
-                if (crosshairImages.indexOf(crosshairView.getImage()) == crosshairImages.size() - 1) { // if the crosshair is the last image, set it to the first image
-                    crosshairView.setImage(crosshairImages.get(0));
-                } else { // else set it to the next image
-                    crosshairView.setImage(crosshairImages.get(crosshairImages.indexOf(crosshairView.getImage()) + 1));
-                }
+                showCrosshair((crosshairIndex + 1) % AssetLoader.CROSSHAIR_COUNT); // after the last image comes the first image
                 break;
             case "previous":
-                if (crosshairImages.indexOf(crosshairView.getImage()) == 0) { // if the crosshair is the first image, set it to the last image
-                    crosshairView.setImage(crosshairImages.get(crosshairImages.size() - 1));
-                } else { // else set it to the previous image
-                    crosshairView.setImage(crosshairImages.get(crosshairImages.indexOf(crosshairView.getImage()) - 1));
-                }
+                showCrosshair((crosshairIndex + AssetLoader.CROSSHAIR_COUNT - 1) % AssetLoader.CROSSHAIR_COUNT); // before the first image comes the last image
                 break;
         }
     }
     /**
      * This method returns the crosshair image.
+     * It waits for the crosshair if it is not loaded yet, so it should be called when the crosshair is needed.
      * @param root The root of the scene.
      * @return The crosshair image.
      */
     public Image getCrosshair(StackPane root){
-        ImageView crosshairView = new ImageView();
-        for (int i = 0; i < root.getChildren().size(); i++) {
-            if (root.getChildren().get(i) instanceof ImageView) {
-                crosshairView = (ImageView) root.getChildren().get(i);
-            }
-        }
-        return crosshairView.getImage();
+        return assetLoader.getCrosshair(crosshairIndex).join();
     }
     /**
      * This method returns the background image.
+     * It waits for the background if it is not loaded yet, so it should be called when the background is needed.
      * @param root The root of the scene.
      * @return The background image.
      */
     public BackgroundImage getBackgroundImage(StackPane root){
-        return root.getBackground().getImages().get(0);
+        return getBackgroundImage(backgroundIndex);
     }
 
     /**
-     * This method returns the foreground image.
+     * This method returns the foreground image of the chosen background.
+     * The foregrounds are decoded only once by the asset loader, it waits for the foreground if it is not loaded yet.
      * @param root The root of the scene.
      * @return The foreground image.
      */
     public Image getForegroundImage(StackPane root){
-        return new Image("file:../assets/foreground/" + (backgroundImages.indexOf(root.getBackground().getImages().get(0))+1) + ".png", scaledWidth, scaledHeight, true, true);
+        return assetLoader.getForeground(backgroundIndex).join();
     }
     /**
      * This method returns the scene.
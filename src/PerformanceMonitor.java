@@ -0,0 +1,323 @@
+import javafx.geometry.VPos;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This class collects the frame time counters of the game loop and shows them in an overlay on the level screen.
+ * The frames are summed up over a sample window of one second: frames per second, the average and longest time
+ * between frames, the time spent in the game loop and in the simulation steps, the number of ducks,
+ * the garbage collections and the memory allocated on the JavaFX thread. The latency of the shots of the level is shown with them.
+ * Every sample is also appended to a CSV file, which is rolled over when it gets too large,
+ * so the samples of different machines can be compared. The rows are formatted and written by a background thread.
+ */
+public class PerformanceMonitor {
+    private static final long SAMPLE_NANOS = 1_000_000_000L; // the length of a sample window
+    private static final long MAX_FILE_SIZE = 1024 * 1024; // the CSV file is rolled over when it is larger than this
+    private static final int MAX_OLD_FILES = 3; // the number of rolled over CSV files that are kept
+    private static final String CSV_HEADER = "time,host,cores,java,renderer,scale,fps,frame_ms_avg,frame_ms_max,loop_ms_avg,tick_ms_avg,ducks,gc_count,gc_ms,allocated_kb,shots,input_ms_p50,input_ms_p99";
+    private final Text overlay = new Text();
+    private final File csvFile;
+    private final String machine; // the host, core count and java version columns of every row
+    private final String settings; // the renderer and scale columns of every row
+    private final ExecutorService csvExecutor; // writes the rows to the CSV file, null if there is no CSV file
+    private BufferedWriter csvWriter; // only used by the CSV thread
+    private volatile boolean csvFailed = false; // set when the CSV file can not be written, so it is not tried on every sample
+    private long sampleStart = -1; // the time of the first frame of the sample, -1 if there is no sample yet
+    private long lastFrameTime = -1;
+    private int frameCount;
+    private long maxFrameInterval;
+    private long loopNanos;
+    private long tickNanos;
+    private int duckCount;
+    private long gcCountAtStart;
+    private long gcMillisAtStart;
+    private long allocatedAtStart;
+    private LatencyHistogram inputLatency; // the latencies of the shots from the press to the end of the handling, null if there is no input
+
+    /**
+     * This constructor creates the monitor. The overlay is hidden until it is toggled.
+     * @param scale The scale of the game visuals.
+     * @param renderer The name of the renderer of the levels, written to the CSV file.
+     * @param csvFile The CSV file the samples are appended to, or null to keep them only in the overlay.
+     */
+    public PerformanceMonitor(double scale, String renderer, File csvFile) {
+        this.csvFile = csvFile;
+        this.machine = hostName() + "," + Runtime.getRuntime().availableProcessors() + "," + System.getProperty("java.version");
+        this.settings = renderer + "," + scale;
+        if (csvFile == null) {
+            csvExecutor = null;
+        } else {
+            csvExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "performance-csv");
+                thread.setDaemon(true); // the samples must not keep the application running
+                return thread;
+            });
+        }
+        overlay.setFill(Color.WHITE);
+        overlay.setStroke(Color.BLACK);
+        overlay.setStrokeWidth(0.3 * scale);
+        overlay.setFont(Font.font("Monospaced", FontWeight.BOLD, 6 * scale));
+        overlay.setTextOrigin(VPos.TOP);
+        overlay.setTranslateX(4 * scale);
+        overlay.setTranslateY(14 * scale); // below the level and ammo texts
+        overlay.setMouseTransparent(true); // shots go through the overlay
+        overlay.setManaged(false);
+        overlay.setVisible(false);
+    }
+
+    /**
+     * This method shows the overlay on a root pane, moving it from its previous root if needed.
+     * @param root The root pane of the level screen.
+     */
+    public void attach(StackPane root) {
+        if (overlay.getParent() != root) {
+            if (overlay.getParent() instanceof StackPane) {
+                ((StackPane) overlay.getParent()).getChildren().remove(overlay);
+            }
+            root.getChildren().add(overlay);
+        }
+        overlay.toFront();
+        sampleStart = -1; // the time spent outside the level is not sampled
+    }
+
+    /**
+     * This method sets the histogram of the shot latencies that is shown with the frame times.
+     * @param inputLatency The latency histogram of the shots of the level.
+     */
+    public void setInputLatency(LatencyHistogram inputLatency) {
+        this.inputLatency = inputLatency;
+    }
+
+    /**
+     * This method shows or hides the overlay.
+     */
+    public void toggleOverlay() {
+        overlay.setVisible(!overlay.isVisible());
+    }
+
+    /**
+     * This method records a frame of the game loop.
+     * @param now The time of the frame in nanoseconds, as given to the AnimationTimer.
+     * @param loopCost The time spent in the game loop in the frame, in nanoseconds.
+     * @param tickCost The time spent in the simulation steps in the frame, in nanoseconds.
+     * @param ducks The number of ducks in the level.
+     */
+    public void recordFrame(long now, long loopCost, long tickCost, int ducks) {
+        if (sampleStart < 0 || now - lastFrameTime > SAMPLE_NANOS) { // the loop was stopped, the sample starts again
+            startSample(now);
+            return;
+        }
+        long interval = now - lastFrameTime;
+        lastFrameTime = now;
+        frameCount++;
+        maxFrameInterval = Math.max(maxFrameInterval, interval);
+        loopNanos += loopCost;
+        tickNanos += tickCost;
+        duckCount = ducks;
+        if (now - sampleStart >= SAMPLE_NANOS) {
+            finishSample(now);
+            startSample(now);
+        }
+    }
+
+    /**
+     * This method starts a sample window.
+     * @param now The time of the first frame of the sample, in nanoseconds.
+     */
+    private void startSample(long now) {
+        sampleStart = now;
+        lastFrameTime = now;
+        frameCount = 0;
+        maxFrameInterval = 0;
+        loopNanos = 0;
+        tickNanos = 0;
+        gcCountAtStart = gcCount();
+        gcMillisAtStart = gcMillis();
+        allocatedAtStart = AllocationMeter.getAllocatedBytes();
+    }
+
+    /**
+     * This method computes the counters of a sample window, shows them in the overlay and hands them to the CSV thread.
+     * @param now The time of the last frame of the sample, in nanoseconds.
+     */
+    private void finishSample(long now) {
+        double seconds = (now - sampleStart) / 1e9;
+        double fps = frameCount / seconds;
+        double frameMillis = seconds * 1000 / frameCount;
+        double maxFrameMillis = maxFrameInterval / 1e6;
+        double loopMillis = loopNanos / 1e6 / frameCount;
+        double tickMillis = tickNanos / 1e6 / frameCount;
+        long gcCount = gcCount() - gcCountAtStart;
+        long gcMillis = gcMillis() - gcMillisAtStart;
+        long allocatedKb = (AllocationMeter.getAllocatedBytes() - allocatedAtStart) / 1024;
+        long shots = inputLatency == null ? 0 : inputLatency.getCount();
+        double inputMillisP50 = inputLatency == null ? 0 : inputLatency.getPercentile(50) / 1e6;
+        double inputMillisP99 = inputLatency == null ? 0 : inputLatency.getPercentile(99) / 1e6;
+        if (overlay.isVisible()) {
+            overlay.setText(String.format("FPS %.1f%nframe %.2f ms (max %.2f)%nloop %.3f ms%ntick %.3f ms%nducks %d%nGC %d (%d ms)%nalloc %d KB/s%ninput %.2f ms (p99 %.2f, %d shots)",
+                    fps, frameMillis, maxFrameMillis, loopMillis, tickMillis, duckCount, gcCount, gcMillis, (long) (allocatedKb / seconds), inputMillisP50, inputMillisP99, shots));
+        }
+        if (csvExecutor == null || csvFailed) {
+            return;
+        }
+        Instant time = Instant.now();
+        int ducks = duckCount;
+        csvExecutor.execute(() -> writeRow(String.format(Locale.ROOT, "%s,%s,%s,%.1f,%.3f,%.3f,%.4f,%.4f,%d,%d,%d,%d,%d,%.3f,%.3f",
+                time, machine, settings, fps, frameMillis, maxFrameMillis, loopMillis, tickMillis, ducks, gcCount, gcMillis, allocatedKb, shots, inputMillisP50, inputMillisP99)));
+    }
+
+    /**
+     * This method appends a row to the CSV file, rolling the file over first if it is too large.
+     * The file is not written anymore if it can not be written. It is run on the CSV thread.
+     * @param row The row to be written.
+     */
+    private void writeRow(String row) {
+        if (csvFailed) {
+            return;
+        }
+        try {
+            if (csvWriter != null && csvFile.length() > MAX_FILE_SIZE) {
+                csvWriter.close();
+                csvWriter = null;
+                rollOver();
+            }
+            if (csvWriter == null) {
+                File directory = csvFile.getAbsoluteFile().getParentFile();
+                if (directory != null) {
+                    directory.mkdirs();
+                }
+                if (csvFile.length() > 0 && !CSV_HEADER.equals(readHeader())) { // the file has the columns of an older version of the game
+                    rollOver();
+                }
+                boolean newFile = !csvFile.exists() || csvFile.length() == 0;
+                csvWriter = new BufferedWriter(new FileWriter(csvFile, true));
+                if (newFile) {
+                    csvWriter.write(CSV_HEADER);
+                    csvWriter.newLine();
+                }
+            }
+            csvWriter.write(row);
+            csvWriter.newLine();
+            csvWriter.flush(); // a row per second, so the file is complete if the game is killed
+        } catch (IOException e) {
+            GameLog.warn("performance.csv.failed", "error", e.toString());
+            closeWriter();
+            csvFailed = true;
+        }
+    }
+
+    /**
+     * This method reads the header of the CSV file
+     * @return the first line of the file, or null if it can not be read
+     */
+    private String readHeader() {
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            return reader.readLine();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * This method renames the CSV file to performance.1.csv, and the older files up to the number of kept files.
+     */
+    private void rollOver() {
+        String name = csvFile.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        String extension = dot < 0 ? "" : name.substring(dot);
+        File directory = csvFile.getAbsoluteFile().getParentFile();
+        new File(directory, base + "." + MAX_OLD_FILES + extension).delete();
+        for (int i = MAX_OLD_FILES - 1; i >= 1; i--) {
+            new File(directory, base + "." + i + extension).renameTo(new File(directory, base + "." + (i + 1) + extension));
+        }
+        csvFile.renameTo(new File(directory, base + ".1" + extension));
+    }
+
+    /**
+     * This method closes the CSV file after the rows that are handed to the CSV thread are written.
+     */
+    public void close() {
+        if (csvExecutor == null) {
+            return;
+        }
+        csvExecutor.execute(this::closeWriter);
+        csvExecutor.shutdown();
+        try {
+            csvExecutor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * This method closes the writer of the CSV file. It is run on the CSV thread.
+     */
+    private void closeWriter() {
+        if (csvWriter != null) {
+            try {
+                csvWriter.close();
+            } catch (IOException ignored) {
+                // the samples are only diagnostics
+            }
+            csvWriter = null;
+        }
+    }
+
+    /**
+     * This method returns the number of garbage collections since the virtual machine was started
+     * @return the number of collections of all the collectors
+     */
+    private static long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * This method returns the time spent in garbage collection since the virtual machine was started
+     * @return the collection time of all the collectors, in milliseconds
+     */
+    private static long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    /**
+     * This method returns the name of the machine, to tell the rows of different machines apart
+     * @return the host name, or unknown if it can not be found
+     */
+    private static String hostName() {
+        String name = System.getenv("HOSTNAME") != null ? System.getenv("HOSTNAME") : System.getenv("COMPUTERNAME");
+        if (name != null) { // the environment is checked first, the name lookup may wait for the network
+            return name.replace(',', '_');
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName().replace(',', '_');
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * This bot plays like a person with a reaction time and a limited accuracy.
+ * It picks one of the ducks that are not shot, sees where the duck is, and shoots at that point after its reaction time,
+ * when the duck has already moved on, so faster ducks are harder to hit. The shot is off by a random error that is
+ * normally distributed, with a standard deviation of a duck size times one minus the accuracy.
+ */
+public class ReactionBot implements Bot {
+    private static final double DUCK_SIZE = 34; // the size of a duck frame at scale 1, the same distance the ducks spawn apart
+    private final int reactionSteps;
+    private final double aimError;
+    private long shotTick = -1; // the simulation step the bot shoots at, -1 if it has not seen a duck yet
+    private double targetX;
+    private double targetY;
+
+    /**
+     * This constructor creates a bot.
+     * @param reactionTime The time from seeing a duck to shooting at it, in seconds.
+     * @param accuracy The accuracy of the aim, 1 shoots exactly where the duck was seen.
+     * @param scale The scale of the game visuals, the aim error grows with the size of the ducks.
+     */
+    public ReactionBot(double reactionTime, double accuracy, double scale) {
+        reactionSteps = Math.max(1, (int) Math.round(reactionTime / LevelSimulation.STEP));
+        aimError = Math.max(0, 1 - accuracy) * DUCK_SIZE * scale;
+    }
+
+    /**
+     * This method forgets the duck the bot was aiming at in the previous level.
+     * @param simulation The simulation of the level.
+     * @param random The random number generator of the game.
+     */
+    @Override
+    public void startLevel(LevelSimulation simulation, Random random) {
+        shotTick = -1;
+    }
+
+    /**
+     * This method looks for a duck if the bot is not aiming at one, and shoots once the reaction time has passed.
+     * @param simulation The simulation of the level.
+     * @param random The random number generator of the game.
+     * @param shot The array the x and y coordinates of the shot are written to.
+     * @return true if the bot shoots
+     */
+    @Override
+    public boolean aim(LevelSimulation simulation, Random random, double[] shot) {
+        if (shotTick < 0) { // look for a duck
+            ArrayList<DuckModel> models = simulation.getModels();
+            int flying = 0;
+            for (int i = 0; i < models.size(); i++) {
+                if (!models.get(i).isShot()) {
+                    flying++;
+                }
+            }
+            if (flying == 0) {
+                return false;
+            }
+            int target = random.nextInt(flying); // any of the flying ducks
+            for (int i = 0; i < models.size(); i++) {
+                DuckModel model = models.get(i);
+                if (!model.isShot() && target-- == 0) {
+                    targetX = (model.getMinX() + model.getMaxX()) / 2; // the center of the duck, as it is seen now
+                    targetY = (model.getMinY() + model.getMaxY()) / 2;
+                    break;
+                }
+            }
+            shotTick = simulation.getTickCount() + reactionSteps;
+            return false;
+        }
+        if (simulation.getTickCount() < shotTick) { // still reacting
+            return false;
+        }
+        shot[0] = targetX + random.nextGaussian() * aimError;
+        shot[1] = targetY + random.nextGaussian() * aimError;
+        shotTick = -1; // the next duck is looked for on the next step
+        return true;
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class is a recorded session of the game: the scale and size of the scene, the seed of the session,
+ * and for every played level its number, its seed and the shots fired in it.
+ * A shot is stored with the simulation step it was fired at, so replaying the shots on a simulation loaded with
+ * the same seed reproduces the session exactly, whatever the frame rate of the recording was.
+ * <p>
+ * The file starts with a header: the magic "DHRP", the version, the scale, the width and height of the scene and the
+ * session seed. It is followed by records that start with a tag byte: a level record holds the level and its seed,
+ * a shot record holds the number of steps since the previous shot of the level as a variable length integer, and the
+ * exact coordinates of the shot. The file ends with an end tag, a file without it was cut short and is read up to its last record.
+ */
+public class Replay {
+    public static final int MAGIC = 0x44485250; // "DHRP"
+    public static final int VERSION = 1;
+    public static final int TAG_LEVEL = 1;
+    public static final int TAG_SHOT = 2;
+    public static final int TAG_END = 3;
+    private final double scale;
+    private final double sceneWidth;
+    private final double sceneHeight;
+    private final long seed;
+    private final ArrayList<Level> levels = new ArrayList<>();
+
+    /**
+     * A level of a recorded session, with the shots fired in it.
+     */
+    public static class Level {
+        private final int level;
+        private final long seed;
+        private long[] ticks = new long[8];
+        private double[] xs = new double[8];
+        private double[] ys = new double[8];
+        private int shotCount;
+
+        /**
+         * This constructor creates a level without shots.
+         * @param level The number of the level.
+         * @param seed The seed the level was loaded with.
+         */
+        public Level(int level, long seed) {
+            this.level = level;
+            this.seed = seed;
+        }
+
+        /**
+         * This method adds a shot to the level.
+         * @param tick The simulation step the shot was fired at.
+         * @param x The x coordinate of the shot.
+         * @param y The y coordinate of the shot.
+         */
+        public void addShot(long tick, double x, double y) {
+            if (shotCount == ticks.length) {
+                ticks = Arrays.copyOf(ticks, shotCount * 2);
+                xs = Arrays.copyOf(xs, shotCount * 2);
+                ys = Arrays.copyOf(ys, shotCount * 2);
+            }
+            ticks[shotCount] = tick;
+            xs[shotCount] = x;
+            ys[shotCount] = y;
+            shotCount++;
+        }
+
+        /**
+         * This method returns the number of the level
+         * @return the level, between 1 and the number of levels
+         */
+        public int getLevel() {
+            return level;
+        }
+
+        /**
+         * This method returns the seed the level was loaded with
+         * @return the seed of the level
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * This method returns the number of shots fired in the level
+         * @return the number of shots
+         */
+        public int getShotCount() {
+            return shotCount;
+        }
+
+        /**
+         * This method returns the simulation step a shot was fired at
+         * @param shot the index of the shot
+         * @return the number of simulation steps from the start of the level to the shot
+         */
+        public long getTick(int shot) {
+            return ticks[shot];
+        }
+
+        /**
+         * This method returns the x coordinate of a shot
+         * @param shot the index of the shot
+         * @return the x coordinate of the shot
+         */
+        public double getX(int shot) {
+            return xs[shot];
+        }
+
+        /**
+         * This method returns the y coordinate of a shot
+         * @param shot the index of the shot
+         * @return the y coordinate of the shot
+         */
+        public double getY(int shot) {
+            return ys[shot];
+        }
+    }
+
+    /**
+     * This constructor creates a session without levels.
+     * @param scale The scale of the game visuals.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     * @param seed The seed of the session.
+     */
+    public Replay(double scale, double sceneWidth, double sceneHeight, long seed) {
+        this.scale = scale;
+        this.sceneWidth = sceneWidth;
+        this.sceneHeight = sceneHeight;
+        this.seed = seed;
+    }
+
+    /**
+     * This method reads a recorded session from a file.
+     * @param file The replay file.
+     * @return the recorded session
+     * @throws IOException if the file can not be read or is not a replay file
+     */
+    public static Replay read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a replay file");
+            }
+            int version = in.readUnsignedByte();
+            if (version != VERSION) {
+                throw new IOException(file + " has the unsupported replay version " + version);
+            }
+            Replay replay = new Replay(in.readDouble(), in.readDouble(), in.readDouble(), in.readLong());
+            Level level = null;
+            long tick = 0;
+            try {
+                while (true) {
+                    int tag = in.readUnsignedByte();
+                    if (tag == TAG_END) {
+                        return replay;
+                    } else if (tag == TAG_LEVEL) {
+                        level = new Level(in.readUnsignedByte(), in.readLong());
+                        replay.levels.add(level);
+                        tick = 0;
+                    } else if (tag == TAG_SHOT && level != null) {
+                        tick += readVarLong(in);
+                        double x = in.readDouble();
+                        level.addShot(tick, x, in.readDouble());
+                    } else {
+                        throw new IOException(file + " has an unknown record " + tag);
+                    }
+                }
+            } catch (EOFException e) { // the recording was cut short, the complete records before are kept
+                return replay;
+            }
+        }
+    }
+
+    /**
+     * This method reads a variable length integer, 7 bits per byte with the lowest bits first.
+     * @param in The stream of the replay file.
+     * @return the integer
+     * @throws IOException if the stream can not be read
+     */
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("The variable length integer is too long");
+    }
+
+    /**
+     * This method returns the levels of the session
+     * @return the played levels, in the order they were played
+     */
+    public ArrayList<Level> getLevels() {
+        return levels;
+    }
+
+    /**
+     * This method returns the scale of the game visuals
+     * @return the scale the session was played at
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * This method returns the width of the scene
+     * @return the width of the scene the session was played in
+     */
+    public double getSceneWidth() {
+        return sceneWidth;
+    }
+
+    /**
+     * This method returns the height of the scene
+     * @return the height of the scene the session was played in
+     */
+    public double getSceneHeight() {
+        return sceneHeight;
+    }
+
+    /**
+     * This method returns the seed of the session
+     * @return the seed the session was started with
+     */
+    public long getSeed() {
+        return seed;
+    }
+}
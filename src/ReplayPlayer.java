@@ -0,0 +1,83 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * This class plays a replay file back on a level simulation, without JavaFX, and prints the outcome of every level.
+ * Every level is loaded with its recorded seed and stepped up to the simulation step of each shot before the shot is
+ * fired, so the ducks are in the same poses as when the session was played and the shots hit the same ducks.
+ * The replay is played as fast as possible, or with --realtime at the speed of the game.
+ * Run it from the src directory after the build: java -cp ../build/classes/java/main ReplayPlayer ../replays/replay-20240101-120000-000.dhr [--realtime]
+ */
+public class ReplayPlayer {
+    private final Replay replay;
+    private final boolean realtime;
+
+    /**
+     * This constructor creates the player of a recorded session.
+     * @param replay The recorded session.
+     * @param realtime Whether the simulation steps are paced at the speed of the game.
+     */
+    public ReplayPlayer(Replay replay, boolean realtime) {
+        this.replay = replay;
+        this.realtime = realtime;
+    }
+
+    /**
+     * This method plays the recorded session back and prints the outcome of every level.
+     * @return the number of levels that were completed
+     */
+    public int play() {
+        LevelSimulation simulation = new LevelSimulation(replay.getScale(), replay.getSceneWidth(), replay.getSceneHeight());
+        int completed = 0;
+        for (Replay.Level level : replay.getLevels()) {
+            simulation.load(LevelSpec.forLevel(level.getLevel()), level.getSeed());
+            long start = System.nanoTime();
+            int hits = 0;
+            for (int shot = 0; shot < level.getShotCount(); shot++) {
+                while (simulation.getTickCount() < level.getTick(shot)) {
+                    simulation.tick();
+                    if (realtime) { // wait until the step is due
+                        LockSupport.parkNanos(start + (long) (simulation.getTickCount() * LevelSimulation.STEP * 1e9) - System.nanoTime());
+                    }
+                }
+                hits += Math.max(0, simulation.shoot(level.getX(shot), level.getY(shot)));
+            }
+            String outcome = simulation.isComplete() ? "complete" : simulation.isFailed() ? "failed" : "abandoned";
+            if (simulation.isComplete()) {
+                completed++;
+            }
+            System.out.printf("Level %d: %s, %d shots, %d hits, %d ducks left, %d ammo left, %.1f s%n",
+                    level.getLevel(), outcome, level.getShotCount(), hits, simulation.getDuckCount(), simulation.getAmmoCount(),
+                    simulation.getTickCount() * LevelSimulation.STEP);
+        }
+        return completed;
+    }
+
+    /**
+     * The entry point of the replay player.
+     * @param args the replay file, and --realtime to play it at the speed of the game
+     * @throws IOException if the replay file can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        File file = null;
+        boolean realtime = false;
+        for (String arg : args) {
+            if (arg.equals("--realtime")) {
+                realtime = true;
+            } else {
+                file = new File(arg);
+            }
+        }
+        if (file == null) {
+            System.out.println("Usage: java ReplayPlayer <replay file> [--realtime]");
+            return;
+        }
+        Replay replay = Replay.read(file);
+        System.out.println("Replay " + file.getName() + ", seed " + replay.getSeed() + ", scale " + replay.getScale()
+                + ", " + replay.getLevels().size() + " levels");
+        long start = System.nanoTime();
+        int completed = new ReplayPlayer(replay, realtime).play();
+        System.out.printf("%d of %d levels completed, played in %.1f ms%n", completed, replay.getLevels().size(), (System.nanoTime() - start) / 1e6);
+    }
+}
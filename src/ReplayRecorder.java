@@ -0,0 +1,176 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+
+/**
+ * This class records a session of the game to a replay file in the replays directory, in the format read by Replay.
+ * A recording is started for every new game, and the levels and the shots are appended while the game is played.
+ * A record is a few bytes written into a buffer, so recording does not delay the game loop.
+ * Only the newest recordings are kept. If the file can not be written the recording stops and the game goes on.
+ */
+public class ReplayRecorder {
+    private static final File REPLAY_DIRECTORY = new File("../replays");
+    private static final int KEPT_REPLAYS = 20; // the older replays are deleted when a recording is started
+    private final File file;
+    private DataOutputStream out; // null once the recording is closed or has failed
+    private long lastShotTick; // the simulation step of the previous shot of the level
+
+    /**
+     * This constructor starts the recording of a session.
+     * @param scale The scale of the game visuals.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     * @param seed The seed of the session.
+     */
+    public ReplayRecorder(double scale, double sceneWidth, double sceneHeight, long seed) {
+        this(REPLAY_DIRECTORY, scale, sceneWidth, sceneHeight, seed);
+    }
+
+    /**
+     * This constructor starts the recording of a session in a directory.
+     * @param directory The directory of the replays.
+     * @param scale The scale of the game visuals.
+     * @param sceneWidth The width of the scene.
+     * @param sceneHeight The height of the scene.
+     * @param seed The seed of the session.
+     */
+    ReplayRecorder(File directory, double scale, double sceneWidth, double sceneHeight, long seed) {
+        directory.mkdirs();
+        pruneReplays(directory);
+        String name = "replay-" + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date());
+        File candidate = new File(directory, name + ".dhr");
+        for (int i = 1; candidate.exists(); i++) { // a game restarted in the same millisecond gets a suffix, so no replay is overwritten
+            candidate = new File(directory, name + "-" + i + ".dhr");
+        }
+        file = candidate;
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath(), StandardOpenOption.CREATE_NEW)));
+            out.writeInt(Replay.MAGIC);
+            out.writeByte(Replay.VERSION);
+            out.writeDouble(scale);
+            out.writeDouble(sceneWidth);
+            out.writeDouble(sceneHeight);
+            out.writeLong(seed);
+            GameLog.info("replay.started", "file", file.getName(), "seed", seed);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * This method records the start of a level.
+     * @param level The number of the level.
+     * @param levelSeed The seed the level is loaded with.
+     */
+    public void recordLevel(int level, long levelSeed) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(Replay.TAG_LEVEL);
+            out.writeByte(level);
+            out.writeLong(levelSeed);
+            out.flush(); // a level is complete on disk when the next one starts
+            lastShotTick = 0;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * This method records a shot that was fired.
+     * @param tick The simulation step of the level the shot was fired at.
+     * @param x The x coordinate of the shot.
+     * @param y The y coordinate of the shot.
+     */
+    public void recordShot(long tick, double x, double y) {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(Replay.TAG_SHOT);
+            writeVarLong(tick - lastShotTick); // the steps between shots fit in one or two bytes
+            out.writeDouble(x); // the exact coordinates, so the hit tests are the same when replayed
+            out.writeDouble(y);
+            lastShotTick = tick;
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * This method writes a variable length integer, 7 bits per byte with the lowest bits first.
+     * @param value The integer, not negative.
+     * @throws IOException if the file can not be written
+     */
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * This method ends the recording and closes the file.
+     */
+    public void close() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.writeByte(Replay.TAG_END);
+            out.close();
+            GameLog.info("replay.saved", "file", file.getName(), "bytes", file.length());
+        } catch (IOException e) {
+            GameLog.warn("replay.failed", "error", e.toString());
+        }
+        out = null;
+    }
+
+    /**
+     * This method stops the recording after the file could not be written.
+     * @param e The error of the write.
+     */
+    private void fail(IOException e) {
+        GameLog.warn("replay.failed", "error", e.toString());
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // the recording is already lost
+            }
+        }
+        out = null;
+    }
+
+    /**
+     * This method deletes the oldest replays, so that a new one can be recorded and at most KEPT_REPLAYS are kept.
+     * @param directory The directory of the replays.
+     */
+    private static void pruneReplays(File directory) {
+        File[] replays = directory.listFiles((parent, name) -> name.endsWith(".dhr"));
+        if (replays == null || replays.length < KEPT_REPLAYS) {
+            return;
+        }
+        Arrays.sort(replays, Comparator.comparing(File::getName)); // the names start with the time of the recording
+        for (int i = 0; i <= replays.length - KEPT_REPLAYS; i++) {
+            replays[i].delete();
+        }
+    }
+
+    /**
+     * This method returns the replay file
+     * @return the file the session is recorded to
+     */
+    public File getFile() {
+        return file;
+    }
+}
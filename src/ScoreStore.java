@@ -0,0 +1,606 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * This class stores the scores of the played games in the scores directory, so that the high scores survive the game.
+ * Every play is appended to a log of fixed size records, and every record has a checksum, so a record that was only
+ * partly written when the game or the machine stopped is found and cut off when the store is opened.
+ * The high scores are kept in an index file that is mapped into memory: a table of the best scores of all time and
+ * a table of the best scores of the day for every mode. A play is inserted into the tables when it is recorded,
+ * and the tables are read without looking at the log, so the high scores are shown at once however many plays there are.
+ * The index has a checksum too, and the log length it covers: the plays after it are inserted when the store is opened,
+ * and an index that does not match the log is rebuilt from the log.
+ * Only the plays in the tables can be in the high scores again, so once the log has grown, it is compacted on a
+ * background thread to the plays in the tables. The records are written to the operating system without waiting for
+ * the disk, the log is only forced to the disk when it is compacted or closed.
+ * If the files can not be read or written the store is closed and the game goes on without it.
+ */
+public class ScoreStore {
+    private static final int LOG_MAGIC = 0x4448534C; // DHSL
+    private static final int INDEX_MAGIC = 0x44485349; // DHSI
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER_SIZE = 16; // the magic number, the version and the sequence number of the next play when the log was compacted
+    private static final int RECORD_SIZE = 32; // sequence, time, score, ducks, mode, 3 reserved bytes and the checksum of the other 28 bytes
+    private static final int INDEX_HEADER_SIZE = 40; // magic, version, top count, mode count, log length, next sequence, checksum, 4 reserved bytes
+    private static final int INDEX_CHECKSUM = 32; // the position of the checksum of the index, over all the other bytes
+    private static final int ENTRY_SIZE = 24; // sequence, time, score and ducks of a play in a table
+    private static final int COMPACT_RECORDS = 65536; // the log is compacted when it has this many records
+    private static final long NO_DAY = Long.MIN_VALUE; // the day of a daily table without plays
+
+    /**
+     * The modes of the game that have high scores.
+     */
+    public enum Mode {
+        LEVELS, // the 6 levels of the game
+        ENDLESS // the waves of the endless mode
+    }
+
+    /**
+     * This class is a play in the high scores.
+     */
+    public static class Score {
+        private final Mode mode;
+        private final long sequence;
+        private final long timeMillis;
+        private final int score;
+        private final int ducks;
+
+        /**
+         * This constructor creates a play.
+         * @param mode The mode the play was played in.
+         * @param sequence The number of the play, the plays are numbered in the order they are recorded.
+         * @param timeMillis The time the play ended, in milliseconds since the epoch.
+         * @param score The score of the play.
+         * @param ducks The number of ducks shot in the play.
+         */
+        public Score(Mode mode, long sequence, long timeMillis, int score, int ducks) {
+            this.mode = mode;
+            this.sequence = sequence;
+            this.timeMillis = timeMillis;
+            this.score = score;
+            this.ducks = ducks;
+        }
+
+        /**
+         * This method returns the mode of the play
+         * @return the mode the play was played in
+         */
+        public Mode getMode() {
+            return mode;
+        }
+
+        /**
+         * This method returns the number of the play
+         * @return the sequence number of the play, in the order the plays are recorded
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * This method returns the time of the play
+         * @return the time the play ended, in milliseconds since the epoch
+         */
+        public long getTimeMillis() {
+            return timeMillis;
+        }
+
+        /**
+         * This method returns the score of the play
+         * @return the score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        /**
+         * This method returns the ducks shot in the play
+         * @return the number of ducks shot
+         */
+        public int getDucks() {
+            return ducks;
+        }
+    }
+
+    private final File logFile;
+    private final File indexFile;
+    private final int topCount;
+    private final int sectionSize; // the bytes of the tables of a mode in the index
+    private final ZoneId zone; // the days of the daily tables are the days of this time zone
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final ExecutorService compactor;
+    private FileChannel log; // null once the store is closed or has failed
+    private MappedByteBuffer index;
+    private long logLength; // the bytes of the log, all of them are valid records
+    private long nextSequence; // the sequence number of the next play
+    private long logSequence; // the sequence number of the next play when the log was compacted, the plays before it may not be in the log
+    private boolean compactionQueued;
+
+    /**
+     * This constructor opens the store in a directory, or creates it.
+     * The plays of the log that are not in the index yet are inserted, and a record that was only partly written is cut off.
+     * @param directory The directory of the log and the index.
+     * @param topCount The number of plays in every table of the high scores.
+     */
+    public ScoreStore(File directory, int topCount) {
+        this(directory, topCount, ZoneId.systemDefault());
+    }
+
+    /**
+     * This constructor opens the store in a directory, or creates it.
+     * @param directory The directory of the log and the index.
+     * @param topCount The number of plays in every table of the high scores.
+     * @param zone The time zone of the days of the daily tables.
+     */
+    public ScoreStore(File directory, int topCount, ZoneId zone) {
+        if (topCount < 1) {
+            throw new IllegalArgumentException("The tables must hold at least 1 play");
+        }
+        this.topCount = topCount;
+        this.zone = zone;
+        sectionSize = 16 + 2 * topCount * ENTRY_SIZE; // the day and the two counts, then the all-time and the daily table
+        logFile = new File(directory, "scores.log");
+        indexFile = new File(directory, "scores.idx");
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-compactor");
+            thread.setDaemon(true); // the compactor must not keep the application running
+            return thread;
+        });
+        long start = System.nanoTime();
+        try {
+            directory.mkdirs();
+            Files.deleteIfExists(new File(directory, "scores.log.tmp").toPath()); // a compaction that did not finish
+            openLog();
+            openIndex();
+            long indexed = index.getLong(16);
+            int replayed = readLog(indexed);
+            GameLog.info("scores.opened", "plays", nextSequence, "replayed", replayed, "ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * This method opens the log and checks its header, a log that is not a score log is moved aside.
+     * @throws IOException if the log can not be opened
+     */
+    private void openLog() throws IOException {
+        log = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (log.size() >= LOG_HEADER_SIZE) {
+            ByteBuffer header = ByteBuffer.allocate(LOG_HEADER_SIZE);
+            log.read(header, 0);
+            if (header.getInt(0) == LOG_MAGIC && header.getInt(4) == VERSION) {
+                logSequence = header.getLong(8);
+                logLength = LOG_HEADER_SIZE + (log.size() - LOG_HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE; // a partly written record is cut off
+                return;
+            }
+            log.close();
+            File aside = new File(logFile.getPath() + ".bad");
+            Files.move(logFile.toPath(), aside.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            GameLog.warn("scores.badLog", "file", aside.getName());
+            log = FileChannel.open(logFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        log.truncate(0);
+        log.write(ByteBuffer.allocate(LOG_HEADER_SIZE).putInt(LOG_MAGIC).putInt(VERSION).putLong(0).flip(), 0);
+        logLength = LOG_HEADER_SIZE;
+        logSequence = 0;
+    }
+
+    /**
+     * This method maps the index into memory, and empties it if it does not match the log, so that it is rebuilt from the log.
+     * @throws IOException if the index can not be mapped
+     */
+    private void openIndex() throws IOException {
+        int size = INDEX_HEADER_SIZE + Mode.values().length * sectionSize;
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            boolean sized = channel.size() == size;
+            index = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // the mapping stays valid after the channel is closed
+            if (sized && index.getInt(0) == INDEX_MAGIC && index.getInt(4) == VERSION && index.getInt(8) == topCount
+                    && index.getInt(12) == Mode.values().length && index.getInt(INDEX_CHECKSUM) == indexChecksum()
+                    && index.getLong(16) >= LOG_HEADER_SIZE && index.getLong(16) <= logLength
+                    && (index.getLong(16) - LOG_HEADER_SIZE) % RECORD_SIZE == 0) {
+                nextSequence = index.getLong(24);
+                return;
+            }
+        }
+        if (logLength > LOG_HEADER_SIZE) {
+            GameLog.warn("scores.rebuildIndex", "records", (logLength - LOG_HEADER_SIZE) / RECORD_SIZE);
+        }
+        for (int i = 0; i < size; i++) {
+            index.put(i, (byte) 0);
+        }
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, VERSION);
+        index.putInt(8, topCount);
+        index.putInt(12, Mode.values().length);
+        for (int m = 0; m < Mode.values().length; m++) {
+            index.putLong(INDEX_HEADER_SIZE + m * sectionSize, NO_DAY);
+        }
+        nextSequence = logSequence; // the plays that were compacted away are still counted
+        updateIndexHeader(LOG_HEADER_SIZE);
+    }
+
+    /**
+     * This method inserts the plays of the log from a position into the index, and cuts the log off at the first record
+     * that has a wrong checksum, which was being written when the game stopped.
+     * @param position The position of the first record that is not in the index.
+     * @return the number of plays inserted
+     * @throws IOException if the log can not be read
+     */
+    private int readLog(long position) throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(RECORD_SIZE * 2048);
+        int replayed = 0;
+        while (position < logLength) {
+            chunk.clear();
+            chunk.limit((int) Math.min(chunk.capacity(), logLength - position));
+            while (chunk.hasRemaining()) {
+                if (log.read(chunk, position + chunk.position()) < 0) {
+                    break;
+                }
+            }
+            int records = chunk.position() / RECORD_SIZE;
+            for (int r = 0; r < records; r++) {
+                int offset = r * RECORD_SIZE;
+                if (recordChecksum(chunk, offset) != chunk.getInt(offset + 28) || chunk.get(offset + 24) < 0 || chunk.get(offset + 24) >= Mode.values().length) {
+                    GameLog.warn("scores.truncated", "bytes", logLength - position - offset);
+                    logLength = position + offset;
+                    break;
+                }
+                insert(Mode.values()[chunk.get(offset + 24)], chunk.getLong(offset), chunk.getLong(offset + 8), chunk.getInt(offset + 16), chunk.getInt(offset + 20));
+                replayed++;
+            }
+            position = Math.min(position + (long) records * RECORD_SIZE, logLength);
+            if (records == 0) { // the file is shorter than it was
+                logLength = position;
+            }
+        }
+        log.truncate(logLength);
+        updateIndexHeader(logLength);
+        return replayed;
+    }
+
+    /**
+     * This method records a play: it appends the play to the log and inserts it into the high scores.
+     * @param mode The mode the play was played in.
+     * @param score The score of the play.
+     * @param ducks The number of ducks shot in the play.
+     * @param timeMillis The time the play ended, in milliseconds since the epoch.
+     */
+    public synchronized void record(Mode mode, int score, int ducks, long timeMillis) {
+        if (log == null) {
+            return;
+        }
+        long sequence = nextSequence;
+        record.clear();
+        record.putLong(sequence).putLong(timeMillis).putInt(score).putInt(ducks).put((byte) mode.ordinal()).put((byte) 0).putShort((short) 0);
+        record.putInt(recordChecksum(record, 0));
+        record.flip();
+        try {
+            while (record.hasRemaining()) {
+                log.write(record, logLength + record.position());
+            }
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+        logLength += RECORD_SIZE;
+        insert(mode, sequence, timeMillis, score, ducks);
+        updateIndexHeader(logLength);
+        if (!compactionQueued && (logLength - LOG_HEADER_SIZE) / RECORD_SIZE >= COMPACT_RECORDS) {
+            compactionQueued = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    /**
+     * This method inserts a play into the all-time and the daily table of its mode.
+     * The tables are sorted by score, and a play does not pass an earlier play with the same score.
+     * @param mode The mode of the play.
+     * @param sequence The number of the play.
+     * @param timeMillis The time of the play.
+     * @param score The score of the play.
+     * @param ducks The ducks shot in the play.
+     */
+    private void insert(Mode mode, long sequence, long timeMillis, int score, int ducks) {
+        nextSequence = Math.max(nextSequence, sequence + 1);
+        int section = INDEX_HEADER_SIZE + mode.ordinal() * sectionSize;
+        insert(section + 8, section + 16, sequence, timeMillis, score, ducks);
+        long day = getDay(timeMillis);
+        long tableDay = index.getLong(section);
+        if (day > tableDay) { // the first play of a new day starts the table of the day
+            index.putLong(section, day);
+            index.putInt(section + 12, 0);
+        } else if (day < tableDay) { // the clock was set back, the play is only in the all-time table
+            return;
+        }
+        insert(section + 12, section + 16 + topCount * ENTRY_SIZE, sequence, timeMillis, score, ducks);
+    }
+
+    /**
+     * This method inserts a play into a table of the index, if it is one of the best plays of the table.
+     * @param countPosition The position of the number of plays in the table.
+     * @param tablePosition The position of the first play of the table.
+     * @param sequence The number of the play.
+     * @param timeMillis The time of the play.
+     * @param score The score of the play.
+     * @param ducks The ducks shot in the play.
+     */
+    private void insert(int countPosition, int tablePosition, long sequence, long timeMillis, int score, int ducks) {
+        int count = index.getInt(countPosition);
+        int rank = count;
+        while (rank > 0 && index.getInt(tablePosition + (rank - 1) * ENTRY_SIZE + 16) < score) {
+            rank--;
+        }
+        if (rank >= topCount) {
+            return;
+        }
+        for (int i = Math.min(count, topCount - 1); i > rank; i--) { // the lower plays move down, the last one falls out
+            int to = tablePosition + i * ENTRY_SIZE;
+            int from = to - ENTRY_SIZE;
+            index.putLong(to, index.getLong(from));
+            index.putLong(to + 8, index.getLong(from + 8));
+            index.putInt(to + 16, index.getInt(from + 16));
+            index.putInt(to + 20, index.getInt(from + 20));
+        }
+        int entry = tablePosition + rank * ENTRY_SIZE;
+        index.putLong(entry, sequence);
+        index.putLong(entry + 8, timeMillis);
+        index.putInt(entry + 16, score);
+        index.putInt(entry + 20, ducks);
+        index.putInt(countPosition, Math.min(count + 1, topCount));
+    }
+
+    /**
+     * This method writes the log length and the next sequence number to the index, followed by the checksum of the index.
+     * The checksum is written last, so an index that was not updated completely does not match it and is rebuilt.
+     * @param indexedLength The length of the log that is in the index.
+     */
+    private void updateIndexHeader(long indexedLength) {
+        index.putLong(16, indexedLength);
+        index.putLong(24, nextSequence);
+        index.putInt(INDEX_CHECKSUM, indexChecksum());
+    }
+
+    /**
+     * This method returns the checksum of the index, over all its bytes but the checksum
+     * @return the CRC32 of the index
+     */
+    private int indexChecksum() {
+        crc.reset();
+        crc.update(index.slice(0, INDEX_CHECKSUM));
+        crc.update(index.slice(INDEX_CHECKSUM + 4, index.capacity() - INDEX_CHECKSUM - 4));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * This method returns the checksum of a record
+     * @param buffer the buffer that holds the record
+     * @param offset the position of the record in the buffer
+     * @return the CRC32 of the bytes of the record before the checksum
+     */
+    private int recordChecksum(ByteBuffer buffer, int offset) {
+        crc.reset();
+        crc.update(buffer.slice(offset, 28));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * This method returns the day of a time
+     * @param timeMillis the time in milliseconds since the epoch
+     * @return the number of the day in the time zone of the store
+     */
+    private long getDay(long timeMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(timeMillis), zone).toEpochDay();
+    }
+
+    /**
+     * This method returns the best plays of all time of a mode
+     * @param mode the mode
+     * @return the plays, the best first, at most the top count of the store
+     */
+    public synchronized List<Score> getTopAllTime(Mode mode) {
+        int section = INDEX_HEADER_SIZE + mode.ordinal() * sectionSize;
+        return readTable(mode, section + 8, section + 16);
+    }
+
+    /**
+     * This method returns the best plays of a mode on the day of a time
+     * @param mode the mode
+     * @param timeMillis a time of the day, usually the current time
+     * @return the plays, the best first, empty if there were no plays on that day or the day is over
+     */
+    public synchronized List<Score> getTopDaily(Mode mode, long timeMillis) {
+        int section = INDEX_HEADER_SIZE + mode.ordinal() * sectionSize;
+        if (log == null || index.getLong(section) != getDay(timeMillis)) {
+            return new ArrayList<>();
+        }
+        return readTable(mode, section + 12, section + 16 + topCount * ENTRY_SIZE);
+    }
+
+    /**
+     * This method reads a table of the index.
+     * @param mode The mode of the table.
+     * @param countPosition The position of the number of plays in the table.
+     * @param tablePosition The position of the first play of the table.
+     * @return the plays of the table
+     */
+    private List<Score> readTable(Mode mode, int countPosition, int tablePosition) {
+        ArrayList<Score> scores = new ArrayList<>();
+        if (log == null) {
+            return scores;
+        }
+        int count = index.getInt(countPosition);
+        for (int i = 0; i < count; i++) {
+            int entry = tablePosition + i * ENTRY_SIZE;
+            scores.add(new Score(mode, index.getLong(entry), index.getLong(entry + 8), index.getInt(entry + 16), index.getInt(entry + 20)));
+        }
+        return scores;
+    }
+
+    /**
+     * This method returns the number of plays recorded in the store, including the ones compacted away
+     * @return the number of plays
+     */
+    public synchronized long getPlayCount() {
+        return nextSequence;
+    }
+
+    /**
+     * This method returns the length of the log
+     * @return the bytes of the log file
+     */
+    public synchronized long getLogLength() {
+        return logLength;
+    }
+
+    /**
+     * This method compacts the log to the plays in the tables of the index, which are the only ones that can be shown again.
+     * The plays are written to a new file that replaces the log when it is complete, so the log is never partly compacted.
+     * It runs on the compactor thread. Only the copy of the tables and the swap of the files hold the lock of the store:
+     * the new file is written and forced to the disk without it, so plays can be recorded while it is written,
+     * and the plays recorded in the meantime are appended to the new file before it replaces the log.
+     */
+    public void compact() {
+        long start = System.nanoTime();
+        long oldLength;
+        ByteBuffer buffer;
+        synchronized (this) {
+            if (log == null) {
+                compactionQueued = false;
+                return;
+            }
+            oldLength = logLength;
+            buffer = compactedLog();
+        }
+        File tmpFile = new File(logFile.getPath() + ".tmp");
+        try {
+            try (FileChannel tmp = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                while (buffer.hasRemaining()) {
+                    tmp.write(buffer);
+                }
+                tmp.force(true); // the compacted log is on the disk before it replaces the log
+            }
+            synchronized (this) {
+                compactionQueued = false;
+                if (log == null) { // the store failed while the new file was written
+                    Files.deleteIfExists(tmpFile.toPath());
+                    return;
+                }
+                try (FileChannel tmp = FileChannel.open(tmpFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                    for (long position = oldLength; position < logLength; ) { // the plays recorded while the new file was written
+                        position += log.transferTo(position, logLength - position, tmp);
+                    }
+                }
+                log.close();
+                try {
+                    Files.move(tmpFile.toPath(), logFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(tmpFile.toPath(), logFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                log = FileChannel.open(logFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+                logLength = log.size();
+                logSequence = buffer.getLong(8);
+                updateIndexHeader(logLength); // an index that still has the old length does not match the new log, and is rebuilt from it
+            }
+            index.force(); // outside the lock, the mapped pages are written while plays are inserted
+            GameLog.info("scores.compacted", "bytesBefore", oldLength, "bytesAfter", getLogLength(), "ms", (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            synchronized (this) {
+                compactionQueued = false;
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * This method writes the plays in the tables of the index into a buffer, in the format of a log.
+     * It must be called with the lock of the store held.
+     * @return the buffer of the compacted log, from its header to its last record
+     */
+    private ByteBuffer compactedLog() {
+        ArrayList<Score> kept = new ArrayList<>();
+        for (Mode mode : Mode.values()) {
+            int section = INDEX_HEADER_SIZE + mode.ordinal() * sectionSize;
+            for (Score score : readTable(mode, section + 8, section + 16)) {
+                kept.add(score);
+            }
+            for (Score score : readTable(mode, section + 12, section + 16 + topCount * ENTRY_SIZE)) {
+                kept.add(score);
+            }
+        }
+        kept.sort((a, b) -> Long.compare(a.getSequence(), b.getSequence())); // the plays stay in the order they were recorded
+        ByteBuffer buffer = ByteBuffer.allocate(LOG_HEADER_SIZE + kept.size() * RECORD_SIZE);
+        buffer.putInt(LOG_MAGIC).putInt(VERSION).putLong(nextSequence);
+        long lastSequence = -1;
+        for (Score score : kept) {
+            if (score.getSequence() == lastSequence) { // a play of the day can also be one of the best of all time
+                continue;
+            }
+            lastSequence = score.getSequence();
+            int offset = buffer.position();
+            buffer.putLong(score.getSequence()).putLong(score.getTimeMillis()).putInt(score.getScore()).putInt(score.getDucks())
+                    .put((byte) score.getMode().ordinal()).put((byte) 0).putShort((short) 0);
+            buffer.putInt(recordChecksum(buffer, offset));
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * This method waits for a compaction that is running, forces the log and the index to the disk and closes the store.
+     */
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (log == null) {
+                return;
+            }
+            try {
+                log.force(false);
+                index.force();
+                log.close();
+            } catch (IOException e) {
+                GameLog.warn("scores.failed", "error", e.toString());
+            }
+            log = null;
+        }
+    }
+
+    /**
+     * This method closes the store after the files could not be read or written.
+     * @param e The error.
+     */
+    private void fail(IOException e) {
+        GameLog.warn("scores.failed", "error", e.toString());
+        if (log != null) {
+            try {
+                log.close();
+            } catch (IOException ignored) {
+                // the store is already lost
+            }
+        }
+        log = null;
+    }
+}
@@ -0,0 +1,171 @@
+import javafx.scene.media.AudioClip;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+import javafx.util.Duration;
+import java.io.File;
+import java.util.HashMap;
+
+/**
+ * This class plays the sounds of the game on two separate channels.
+ * The music channel plays one track at a time with a MediaPlayer, which is disposed when the track is changed.
+ * The effects channel plays preloaded, pre-decoded AudioClips from a bounded pool of voices for each effect,
+ * so rapid shots do not create new players and overlapping effects do not cut off the music.
+ */
+public class SoundEngine {
+    private static final String EFFECTS_DIRECTORY = "../assets/effects/"; // the effects directory, relative to the working directory
+    private final int voicesPerEffect;
+    private final HashMap<String, AudioClip[]> effects = new HashMap<>(); // the voices of every loaded effect
+    private final HashMap<String, Integer> nextVoices = new HashMap<>(); // the voice to be used for the next play of every effect
+    private double musicVolume;
+    private double effectsVolume;
+    private MediaPlayer musicPlayer;
+    private String musicName; // the name of the current track, null if no music is playing
+
+    /**
+     * This constructor creates the sound engine.
+     * @param volume The volume of both channels.
+     * @param voicesPerEffect The number of times an effect can be heard at the same time.
+     */
+    public SoundEngine(double volume, int voicesPerEffect) {
+        this.musicVolume = volume;
+        this.effectsVolume = volume;
+        this.voicesPerEffect = voicesPerEffect;
+    }
+
+    /**
+     * This method loads and decodes the voices of an effect, so that it can be played without delay.
+     * Loading an effect that is already loaded does nothing.
+     * @param name The file name of the effect in the effects directory.
+     */
+    public void loadEffect(String name) {
+        if (effects.containsKey(name)) {
+            return;
+        }
+        GameEvents.MediaCreated event = new GameEvents.MediaCreated();
+        event.begin();
+        String source = toSource(name);
+        AudioClip[] voices = new AudioClip[voicesPerEffect];
+        for (int i = 0; i < voicesPerEffect; i++) { // every voice is a separate clip, so it can be stopped on its own
+            voices[i] = new AudioClip(source);
+        }
+        event.path = name;
+        event.kind = "effect";
+        event.voices = voicesPerEffect;
+        event.commit();
+        effects.put(name, voices);
+        nextVoices.put(name, 0);
+    }
+
+    /**
+     * This method plays an effect on the effects channel.
+     * If all the voices of the effect are busy, the oldest one is stopped and reused.
+     * @param name The file name of the effect in the effects directory.
+     */
+    public void playEffect(String name) {
+        loadEffect(name); // effects that are not preloaded are loaded on their first play
+        AudioClip[] voices = effects.get(name);
+        int voice = nextVoices.get(name);
+        nextVoices.put(name, (voice + 1) % voices.length);
+        voices[voice].stop(); // steal the voice if it is still playing
+        voices[voice].play(effectsVolume);
+    }
+
+    /**
+     * This method plays a track on the music channel, stopping and disposing the current track.
+     * @param name The file name of the track in the effects directory.
+     * @param loop Whether the track is repeated until it is stopped.
+     * @param onEnd The action to be run when the track ends, it can be null. It is not run for a looping track.
+     */
+    public void playMusic(String name, boolean loop, Runnable onEnd) {
+        stopMusic();
+        GameEvents.MediaCreated event = new GameEvents.MediaCreated();
+        event.begin();
+        MediaPlayer player = new MediaPlayer(new Media(toSource(name)));
+        event.path = name;
+        event.kind = "music";
+        event.voices = 1;
+        event.commit();
+        player.setVolume(musicVolume);
+        player.setOnEndOfMedia(() -> {
+            if (loop) { // replay the track from the beginning
+                player.seek(Duration.ZERO);
+                player.play();
+            } else {
+                if (player == musicPlayer) { // the track has ended, the channel is free
+                    musicName = null;
+                }
+                player.stop();
+                if (onEnd != null) {
+                    onEnd.run();
+                }
+            }
+        });
+        musicPlayer = player;
+        musicName = name;
+        player.play();
+    }
+
+    /**
+     * This method stops the music channel and releases the player of the current track.
+     */
+    public void stopMusic() {
+        if (musicPlayer != null) {
+            musicPlayer.setOnEndOfMedia(null);
+            musicPlayer.stop();
+            musicPlayer.dispose();
+            musicPlayer = null;
+        }
+        musicName = null;
+    }
+
+    /**
+     * This method checks whether a track is playing on the music channel.
+     * @param name The file name of the track.
+     * @return true if the track is playing and has not ended, false otherwise
+     */
+    public boolean isMusicPlaying(String name) {
+        return name.equals(musicName);
+    }
+
+    /**
+     * This method sets the volume of the music channel, including the current track.
+     * @param volume the volume of the music
+     */
+    public void setMusicVolume(double volume) {
+        musicVolume = volume;
+        if (musicPlayer != null) {
+            musicPlayer.setVolume(volume);
+        }
+    }
+
+    /**
+     * This method sets the volume of the effects channel.
+     * @param volume the volume of the effects
+     */
+    public void setEffectsVolume(double volume) {
+        effectsVolume = volume;
+    }
+
+    /**
+     * This method stops all the sounds and releases the music player and the effect voices.
+     */
+    public void dispose() {
+        stopMusic();
+        for (AudioClip[] voices : effects.values()) {
+            for (AudioClip voice : voices) {
+                voice.stop();
+            }
+        }
+        effects.clear();
+        nextVoices.clear();
+    }
+
+    /**
+     * This method returns the media source of a sound.
+     * @param name The file name of the sound in the effects directory.
+     * @return the URI of the sound file
+     */
+    private static String toSource(String name) {
+        return new File(EFFECTS_DIRECTORY + name).toURI().toString();
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+/**
+ * This class is a uniform grid over the scene, used as the broadphase of the shot hit test.
+ * The bounds of every target are inserted into all the cells they overlap, so a shot only needs to check
+ * the targets of the cell it falls in. The grid is rebuilt on every simulation step.
+ * The entries are kept in linked lists stored in int arrays, so rebuilding the grid does not allocate
+ * once the arrays are large enough.
+ */
+public class SpatialGrid {
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[] cellHeads; // the first entry of every cell, -1 if the cell is empty
+    private int[] entryIds = new int[16]; // the target id of every entry
+    private int[] nextEntries = new int[16]; // the next entry in the same cell, -1 if it is the last one
+    private int entryCount = 0;
+    private int[] results = new int[16]; // the target ids found by the last query
+    private int resultCount = 0;
+
+    /**
+     * This constructor creates the grid.
+     * @param width The width of the area covered by the grid.
+     * @param height The height of the area covered by the grid.
+     * @param cellSize The size of a cell, ideally about the size of a target.
+     */
+    public SpatialGrid(double width, double height, double cellSize) {
+        this.cellSize = cellSize;
+        this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.cellHeads = new int[columns * rows];
+        Arrays.fill(cellHeads, -1);
+    }
+
+    /**
+     * This method removes all the targets from the grid.
+     */
+    public void clear() {
+        Arrays.fill(cellHeads, -1);
+        entryCount = 0;
+    }
+
+    /**
+     * This method inserts a target into all the cells its bounds overlap.
+     * Bounds that are partly outside the grid are clamped to the grid.
+     * @param id The id of the target, returned by the queries.
+     * @param minX The left edge of the bounds.
+     * @param minY The top edge of the bounds.
+     * @param maxX The right edge of the bounds.
+     * @param maxY The bottom edge of the bounds.
+     */
+    public void insert(int id, double minX, double minY, double maxX, double maxY) {
+        int firstColumn = column(minX);
+        int lastColumn = column(maxX);
+        int firstRow = row(minY);
+        int lastRow = row(maxY);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                if (entryCount == entryIds.length) { // grow the entry arrays, this only happens until they fit the targets
+                    entryIds = Arrays.copyOf(entryIds, entryCount * 2);
+                    nextEntries = Arrays.copyOf(nextEntries, entryCount * 2);
+                }
+                int cell = row * columns + column;
+                entryIds[entryCount] = id;
+                nextEntries[entryCount] = cellHeads[cell];
+                cellHeads[cell] = entryCount;
+                entryCount++;
+            }
+        }
+    }
+
+    /**
+     * This method finds the targets inserted into the cell of a point.
+     * The results are read with getResult, and are valid until the next query.
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     * @return the number of targets found
+     */
+    public int query(double x, double y) {
+        resultCount = 0;
+        if (x < 0 || y < 0 || x >= columns * cellSize || y >= rows * cellSize) { // the point is outside the grid
+            return 0;
+        }
+        for (int entry = cellHeads[row(y) * columns + column(x)]; entry != -1; entry = nextEntries[entry]) {
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, resultCount * 2);
+            }
+            results[resultCount++] = entryIds[entry];
+        }
+        return resultCount;
+    }
+
+    /**
+     * This method returns a target found by the last query.
+     * @param index The index of the result, smaller than the count returned by the query.
+     * @return the id of the target
+     */
+    public int getResult(int index) {
+        return results[index];
+    }
+
+    /**
+     * This method returns the first entry of a cell, to walk the targets of the cell with getNextEntry.
+     * Unlike query, walking the entries does not change the grid, so several threads can walk it at the same time
+     * as long as it is not rebuilt.
+     * @param column The column of the cell.
+     * @param row The row of the cell.
+     * @return the first entry of the cell, or -1 if the cell is empty
+     */
+    public int getFirstEntry(int column, int row) {
+        return cellHeads[row * columns + column];
+    }
+
+    /**
+     * This method returns the entry after an entry in the same cell
+     * @param entry the entry
+     * @return the next entry of the cell, or -1 if the entry is the last one
+     */
+    public int getNextEntry(int entry) {
+        return nextEntries[entry];
+    }
+
+    /**
+     * This method returns the target of an entry
+     * @param entry the entry
+     * @return the id the target was inserted with
+     */
+    public int getEntryId(int entry) {
+        return entryIds[entry];
+    }
+
+    /**
+     * This method returns the column of the cell of an x coordinate
+     * @param x the x coordinate
+     * @return the column, clamped to the grid
+     */
+    public int getColumn(double x) {
+        return column(x);
+    }
+
+    /**
+     * This method returns the row of the cell of a y coordinate
+     * @param y the y coordinate
+     * @return the row, clamped to the grid
+     */
+    public int getRow(double y) {
+        return row(y);
+    }
+
+    /**
+     * This method returns the number of columns of the grid
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return columns;
+    }
+
+    /**
+     * This method returns the number of rows of the grid
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return rows;
+    }
+
+    /**
+     * This method returns the column of an x coordinate, clamped to the grid.
+     * @param x the x coordinate
+     * @return the column of the coordinate
+     */
+    private int column(double x) {
+        return Math.min(columns - 1, Math.max(0, (int) (x / cellSize)));
+    }
+
+    /**
+     * This method returns the row of a y coordinate, clamped to the grid.
+     * @param y the y coordinate
+     * @return the row of the coordinate
+     */
+    private int row(double y) {
+        return Math.min(rows - 1, Math.max(0, (int) (y / cellSize)));
+    }
+}
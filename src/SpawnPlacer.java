@@ -0,0 +1,77 @@
+import java.util.Random;
+
+/**
+ * This class chooses the spawn positions of the ducks with a jittered grid.
+ * The spawn area is split into at least as many cells as there are ducks, the ducks get distinct random cells,
+ * and every duck is placed at a random position inside its cell, away from the cell edges.
+ * This keeps the ducks apart from each other and runs in linear time in the number of cells.
+ * The placement only depends on the seed, so it is reproducible.
+ */
+public class SpawnPlacer {
+    private final Random random;
+
+    /**
+     * This constructor creates a spawn placer with a seed drawn from the random number generator of the session.
+     */
+    public SpawnPlacer() {
+        this(GameRandom.nextSeed());
+    }
+
+    /**
+     * This constructor creates a spawn placer whose placements are reproducible.
+     * @param seed The seed of the random number generator.
+     */
+    public SpawnPlacer(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * This method chooses the spawn positions of a number of ducks inside an area.
+     * Two ducks are at least minSeparation apart on the x or y axis, unless the area is too small to fit the ducks
+     * that far apart, in which case they are at least the size of a grid cell apart.
+     * @param count The number of ducks.
+     * @param minX The left edge of the spawn area.
+     * @param minY The top edge of the spawn area.
+     * @param maxX The right edge of the spawn area.
+     * @param maxY The bottom edge of the spawn area.
+     * @param minSeparation The distance that should be kept between ducks.
+     * @return the positions of the ducks, the x and y coordinates of the i-th duck are at 2*i and 2*i+1
+     */
+    public double[] place(int count, double minX, double minY, double maxX, double maxY, double minSeparation) {
+        double[] positions = new double[2 * count];
+        if (count == 0) {
+            return positions;
+        }
+        double width = maxX - minX;
+        double height = maxY - minY;
+        double cellSize = Math.sqrt(width * height / count); // square cells that would exactly cover the area
+        int columns = Math.max(1, (int) (width / cellSize));
+        int rows = Math.max(1, (int) (height / cellSize));
+        while (columns * rows < count) { // add a column or a row, whichever makes the cells more square
+            if (width / columns > height / rows) {
+                columns++;
+            } else {
+                rows++;
+            }
+        }
+        double cellWidth = width / columns;
+        double cellHeight = height / rows;
+        double marginX = Math.min(minSeparation, cellWidth) / 2; // ducks in neighbouring cells are at least two margins apart
+        double marginY = Math.min(minSeparation, cellHeight) / 2;
+        int[] cells = new int[columns * rows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+        }
+        for (int i = 0; i < count; i++) { // choose distinct cells with a partial Fisher-Yates shuffle
+            int j = i + random.nextInt(cells.length - i);
+            int cell = cells[j];
+            cells[j] = cells[i];
+            cells[i] = cell;
+            double cellX = minX + (cell % columns) * cellWidth;
+            double cellY = minY + (cell / columns) * cellHeight;
+            positions[2 * i] = cellX + marginX + random.nextDouble() * (cellWidth - 2 * marginX);
+            positions[2 * i + 1] = cellY + marginY + random.nextDouble() * (cellHeight - 2 * marginY);
+        }
+        return positions;
+    }
+}
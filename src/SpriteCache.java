@@ -0,0 +1,158 @@
+import javafx.scene.image.Image;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class is a process-wide cache for the sprite images of the game.
+ * Every sprite is decoded only once for each scale, and the same Image object is handed to every caller.
+ * The natural size of a sprite is read from the PNG header, so the sprite does not need to be decoded twice to be scaled.
+ * If the sprite was scaled ahead of time by the SpritePrescaler build step, the pre-scaled copy is decoded at its natural
+ * size instead, which is faster than scaling while decoding. A copy that is older than the sprite is not used.
+ * It also keeps the hit and miss counts of the cache.
+ */
+public class SpriteCache {
+    private static final String ASSETS_DIRECTORY = "../assets/"; // the assets directory, relative to the working directory
+    private static final ConcurrentHashMap<String, Image> images = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private SpriteCache() {
+    }
+
+    /**
+     * This method returns the image of a duck frame.
+     * @param duckColor The color of the duck.
+     * @param frameIndex The index of the frame, between 1 and 8.
+     * @param scale The scale of the frame.
+     * @return the scaled image of the duck frame
+     */
+    public static Image getDuckFrame(String duckColor, int frameIndex, double scale) {
+        return getImage("duck_" + duckColor + "/" + frameIndex + ".png", scale);
+    }
+
+    /**
+     * This method returns the scaled image of a sprite, decoding it only if it is not in the cache.
+     * @param path The path of the sprite, relative to the assets directory.
+     * @param scale The scale of the sprite.
+     * @return the scaled image of the sprite
+     */
+    public static Image getImage(String path, double scale) {
+        String key = path + "@" + scale;
+        Image image = images.get(key);
+        if (image != null) { // the sprite is already decoded for this scale
+            hits.incrementAndGet();
+            return image;
+        }
+        return images.computeIfAbsent(key, k -> {
+            misses.incrementAndGet();
+            return decode(path, scale);
+        });
+    }
+
+    /**
+     * This method decodes a sprite at the given scale and records the decode as a flight recorder event.
+     * @param path The path of the sprite, relative to the assets directory.
+     * @param scale The scale of the sprite.
+     * @return the decoded image
+     */
+    private static Image decode(String path, double scale) {
+        GameEvents.ImageDecode event = new GameEvents.ImageDecode();
+        event.begin();
+        String prescaledUrl = findPrescaled(path, scale);
+        Image image = prescaledUrl != null ? new Image(prescaledUrl) : decodeImage(path, scale);
+        if (event.shouldCommit()) {
+            event.path = path;
+            event.scale = scale;
+            event.prescaled = prescaledUrl != null;
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.bytes = (long) (image.getWidth() * image.getHeight()) * 4; // the decoded image has 4 bytes per pixel
+            event.commit();
+        }
+        return image;
+    }
+
+    /**
+     * This method returns the pre-scaled copy of a sprite, if the build step has made one that is up to date.
+     * @param path The path of the sprite, relative to the assets directory.
+     * @param scale The scale of the sprite.
+     * @return the url of the pre-scaled copy, or null if the sprite has to be scaled while it is decoded
+     */
+    private static String findPrescaled(String path, double scale) {
+        if (scale == 1.0) {
+            return null;
+        }
+        File prescaled = SpritePrescaler.getPrescaledFile(path, scale);
+        if (!prescaled.isFile() || prescaled.lastModified() < new File(ASSETS_DIRECTORY + path).lastModified()) {
+            return null;
+        }
+        return "file:" + prescaled.getPath().replace(File.separatorChar, '/');
+    }
+
+    /**
+     * This method decodes a sprite at the given scale, reading its size from the PNG header if it is scaled.
+     * @param path The path of the sprite, relative to the assets directory.
+     * @param scale The scale of the sprite.
+     * @return the decoded image
+     */
+    private static Image decodeImage(String path, double scale) {
+        String url = "file:" + ASSETS_DIRECTORY + path;
+        if (scale == 1.0) { // no need to know the size of the sprite if it is not scaled
+            return new Image(url);
+        }
+        int[] size = readPngSize(new File(ASSETS_DIRECTORY + path));
+        if (size == null) { // the header could not be read, let the image decoder find the size
+            Image image = new Image(url, 0, 0, true, true);
+            return new Image(url, image.getWidth() * scale, image.getHeight() * scale, true, true);
+        }
+        return new Image(url, size[0] * scale, size[1] * scale, true, true);
+    }
+
+    /**
+     * This method reads the width and height of a PNG file from its IHDR chunk without decoding the image.
+     * @param file The PNG file.
+     * @return the width and height of the image, or null if the file is not a readable PNG file
+     */
+    public static int[] readPngSize(File file) {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            if (in.readLong() != 0x89504E470D0A1A0AL) { // the PNG signature
+                return null;
+            }
+            in.readInt(); // the length of the IHDR chunk
+            if (in.readInt() != 0x49484452) { // the first chunk must be IHDR
+                return null;
+            }
+            return new int[]{in.readInt(), in.readInt()};
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * This method returns the number of requests that were answered from the cache.
+     * @return the hit count of the cache
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * This method returns the number of requests that had to decode the sprite.
+     * @return the miss count of the cache
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * This method returns the number of images in the cache.
+     * @return the size of the cache
+     */
+    public static int size() {
+        return images.size();
+    }
+}
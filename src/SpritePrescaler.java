@@ -0,0 +1,150 @@
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+
+/**
+ * This class is the build step that scales the sprites of the game ahead of time, for the common scales of the game.
+ * The duck frames, crosshairs and foregrounds are scaled with bilinear filtering, like the images scaled at runtime,
+ * and written to assets/cache/(scale)/ under the same paths, where the SpriteCache finds them and decodes them at their
+ * natural size instead of scaling them. Sprites that are older than their pre-scaled copy are skipped, so the step can be
+ * run after every build. It does not need JavaFX.
+ * The build runs it as the prescaleSprites task, it can also be run from the src directory: java -cp ../build/classes/java/main SpritePrescaler [scale...]
+ */
+public class SpritePrescaler {
+    private static final String ASSETS_DIRECTORY = "../assets/";
+    private static final double[] DEFAULT_SCALES = {1.5, 2, 3, 4};
+
+    /**
+     * This method returns the paths of the sprites that are scaled by the game, relative to the assets directory.
+     * The backgrounds and the title screen are drawn at their natural size and scaled by the scene, so they are not included.
+     * @return the paths of the scaled sprites
+     */
+    public static ArrayList<String> getScaledSprites() {
+        ArrayList<String> paths = new ArrayList<>();
+        for (String color : new String[]{"red", "blue", "black"}) {
+            for (int frame = 1; frame <= 8; frame++) {
+                paths.add("duck_" + color + "/" + frame + ".png");
+            }
+        }
+        for (int i = 1; i <= AssetLoader.CROSSHAIR_COUNT; i++) {
+            paths.add("crosshair/" + i + ".png");
+        }
+        for (int i = 1; i <= AssetLoader.BACKGROUND_COUNT; i++) {
+            paths.add("foreground/" + i + ".png");
+        }
+        return paths;
+    }
+
+    /**
+     * This method returns the file of the pre-scaled copy of a sprite, which may not exist
+     * @param path the path of the sprite, relative to the assets directory
+     * @param scale the scale of the sprite
+     * @return the file under the cache directory of the scale
+     */
+    public static File getPrescaledFile(String path, double scale) {
+        return new File(ASSETS_DIRECTORY + "cache/" + formatScale(scale) + "/" + path);
+    }
+
+    /**
+     * This method formats a scale as the name of its cache directory
+     * @param scale the scale
+     * @return the scale without trailing zeros, for example 2 or 1.5
+     */
+    public static String formatScale(double scale) {
+        return BigDecimal.valueOf(scale).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * This method scales a sprite and writes it to the cache directory of the scale, unless the pre-scaled copy is up to date.
+     * @param path The path of the sprite, relative to the assets directory.
+     * @param scale The scale of the sprite.
+     * @return true if the sprite was written, false if it was up to date
+     * @throws IOException if the sprite can not be read or written
+     */
+    public static boolean prescale(String path, double scale) throws IOException {
+        File source = new File(ASSETS_DIRECTORY + path);
+        File target = getPrescaledFile(path, scale);
+        if (target.exists() && target.lastModified() >= source.lastModified()) {
+            return false;
+        }
+        BufferedImage image = ImageIO.read(source);
+        if (image == null) {
+            throw new IOException(source + " is not an image");
+        }
+        int width = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * scale));
+        BufferedImage scaled = resize(image, width, height);
+        target.getParentFile().mkdirs();
+        File temporary = new File(target.getParentFile(), target.getName() + ".tmp");
+        ImageIO.write(scaled, "png", temporary);
+        Files.move(temporary.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE); // the game never reads a half written sprite
+        return true;
+    }
+
+    /**
+     * This method resizes an image with bilinear filtering. An image that is made more than two times smaller is halved
+     * first until it is not, so that every source pixel counts.
+     * @param image The image.
+     * @param width The width of the resized image.
+     * @param height The height of the resized image.
+     * @return the resized image
+     */
+    private static BufferedImage resize(BufferedImage image, int width, int height) {
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    /**
+     * This method draws an image into a new image of another size, with bilinear filtering.
+     * @param image The image.
+     * @param width The width of the new image.
+     * @param height The height of the new image.
+     * @return the new image, with an alpha channel
+     */
+    private static BufferedImage draw(BufferedImage image, int width, int height) {
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = result.createGraphics();
+        graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        graphics.drawImage(image, 0, 0, width, height, null);
+        graphics.dispose();
+        return result;
+    }
+
+    /**
+     * The entry point of the build step.
+     * @param args the scales to pre-scale the sprites for, the common scales of the game if none are given
+     * @throws IOException if a sprite can not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        double[] scales = DEFAULT_SCALES;
+        if (args.length > 0) {
+            scales = new double[args.length];
+            for (int i = 0; i < args.length; i++) {
+                scales[i] = Double.parseDouble(args[i]);
+            }
+        }
+        ArrayList<String> paths = getScaledSprites();
+        long start = System.nanoTime();
+        for (double scale : scales) {
+            int written = 0;
+            for (String path : paths) {
+                if (prescale(path, scale)) {
+                    written++;
+                }
+            }
+            System.out.println("Scale " + formatScale(scale) + ": " + written + " sprites written, " + (paths.size() - written) + " up to date");
+        }
+        System.out.printf("Pre-scaled in %.0f ms%n", (System.nanoTime() - start) / 1e6);
+    }
+}
@@ -13,9 +13,10 @@ import javafx.util.Duration;
 
 /**
  * This class is the scene for the title screen.
- * It contains the background image and the text.
+ * It contains the background image and the text, and the high scores once they are read.
  */
 public class TitleScreen extends Scene {
+    private final Text leaderboardText = new Text(); // the high scores, empty until they are shown
     /**
      * This constructor creates the title screen.
      * @param root The root of the scene.
@@ -23,7 +24,7 @@ public class TitleScreen extends Scene {
      */
     public TitleScreen(StackPane root, double scale) {
         super(root);
-        Image img = new Image("file:../assets/welcome/1.png");
+        Image img = SpriteCache.getImage("welcome/1.png", 1.0); // decoded only the first time the title screen is shown
         double imgWidth = img.getWidth();
         double scaledWidth = imgWidth*scale;
         double imgHeight = img.getHeight();
@@ -44,6 +45,19 @@ public class TitleScreen extends Scene {
         fadeTransition.setAutoReverse(true);
         root.getChildren().add(startText);
         fadeTransition.play();
+        leaderboardText.setTextAlignment(TextAlignment.CENTER);
+        leaderboardText.setTranslateY(scaledHeight*0.07); // between the title and the start text
+        leaderboardText.setFill(color);
+        leaderboardText.setFont(Font.font("Arial", FontWeight.BOLD, 6*scale));
+        root.getChildren().add(leaderboardText);
+    }
+
+    /**
+     * This method shows the high scores on the title screen.
+     * @param leaderboard The lines of the high scores, or an empty string to show nothing.
+     */
+    public void showLeaderboard(String leaderboard) {
+        leaderboardText.setText(leaderboard);
     }
     /**
      * This method returns the current scene.
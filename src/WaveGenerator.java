@@ -0,0 +1,61 @@
+/**
+ * This class generates the waves of the endless mode. A wave is generated when it is started, from its number only,
+ * so the waves are never stored and a session can go on for as many waves as the player survives.
+ * Every wave has more ducks than the previous one, more of them fly diagonally, they are faster, and there are fewer
+ * shots for every duck, until the limits below are reached. The ducks of a wave do not fly all at once: at most
+ * the entity budget of them are in the sky, and the next duck spawns when a shot duck has landed, reusing its model
+ * and its sprite, so the memory of a wave does not grow with its number.
+ */
+public class WaveGenerator {
+    private static final int FIRST_WAVE_DUCKS = 3; // the number of ducks of the first wave, every wave has one more
+    private static final int MAX_WAVE_DUCKS = 40; // the most ducks of a wave, the later waves only get faster
+    private static final double SPEED_STEP = 0.1; // the speed multiplier grows by this much every wave
+    private static final double MAX_SPEED = 3.0; // the highest speed multiplier, faster ducks can not be followed by eye
+    private static final double FIRST_AMMO_PER_DUCK = 3.0; // the shots for every duck of the first wave, like the levels
+    private static final double MIN_AMMO_PER_DUCK = 1.5; // the fewest shots for every duck
+    private static final double AMMO_STEP = 0.1; // the shots for every duck shrink by this much every wave
+    private final int entityBudget;
+
+    /**
+     * This constructor creates a wave generator.
+     * @param entityBudget The most ducks in the sky at the same time, in every wave.
+     */
+    public WaveGenerator(int entityBudget) {
+        if (entityBudget < 1) {
+            throw new IllegalArgumentException("The entity budget must be at least 1");
+        }
+        this.entityBudget = entityBudget;
+    }
+
+    /**
+     * This method generates the description of a wave.
+     * In wave n, n - 1 ducks of every 10 fly diagonally, and the ducks in the sky grow by one every other wave, up to the entity budget.
+     * @param wave The wave number, starting from 1.
+     * @return the description of the wave
+     */
+    public LevelSpec getWave(int wave) {
+        if (wave < 1) {
+            throw new IllegalArgumentException("There is no wave " + wave);
+        }
+        int duckCount = Math.min(MAX_WAVE_DUCKS, FIRST_WAVE_DUCKS + wave - 1);
+        LevelSpec.MotionType[] motionTypes = new LevelSpec.MotionType[duckCount];
+        double[] speedMultipliers = new double[duckCount];
+        double speed = Math.min(MAX_SPEED, 1.0 + SPEED_STEP * (wave - 1));
+        for (int i = 0; i < duckCount; i++) {
+            motionTypes[i] = i % 10 < wave - 1 ? LevelSpec.MotionType.DIAGONAL : LevelSpec.MotionType.HORIZONTAL;
+            speedMultipliers[i] = Math.min(MAX_SPEED, speed * (1 + 0.05 * (i % 3))); // the ducks of a wave are not all equally fast
+        }
+        double ammoPerDuck = Math.max(MIN_AMMO_PER_DUCK, FIRST_AMMO_PER_DUCK - AMMO_STEP * (wave - 1));
+        int ammoCount = (int) Math.ceil(duckCount * ammoPerDuck);
+        int activeLimit = Math.min(Math.min(entityBudget, duckCount), 2 + (wave - 1) / 2);
+        return new LevelSpec(wave, motionTypes, speedMultipliers, LevelSpec.ColorPolicy.RANDOM, ammoCount, activeLimit, true);
+    }
+
+    /**
+     * This method returns the entity budget of the waves
+     * @return the most ducks in the sky at the same time
+     */
+    public int getEntityBudget() {
+        return entityBudget;
+    }
+}
@@ -0,0 +1,117 @@
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.layout.*;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests that a long session of the endless mode keeps its memory flat. It needs the JavaFX toolkit,
+ * which the build runs with the headless Monocle platform.
+ */
+public class EndlessModeTest {
+    /**
+     * This method starts the JavaFX toolkit, once for all the tests of the run.
+     * @throws InterruptedException if the waiting thread is interrupted
+     */
+    @BeforeAll
+    public static void startToolkit() throws InterruptedException {
+        CompletableFuture<Void> started = new CompletableFuture<>();
+        try {
+            Platform.startup(() -> started.complete(null));
+        } catch (IllegalStateException e) { // started by another test
+            started.complete(null);
+        }
+        started.join();
+    }
+
+    /**
+     * This method runs a task on the JavaFX application thread and waits for it to finish.
+     * @param task the task to be run
+     * @throws Exception the exception of the task
+     */
+    private static void runOnFxThread(Runnable task) throws Exception {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        Platform.runLater(() -> {
+            try {
+                task.run();
+                done.complete(null);
+            } catch (Throwable e) { // a failed assertion is an error
+                done.completeExceptionally(e);
+            }
+        });
+        try {
+            done.get(10, TimeUnit.MINUTES);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : new RuntimeException(e.getCause());
+        }
+    }
+
+    /**
+     * This method returns the heap still used after garbage collections, the memory that is reachable
+     * @return the used heap in bytes
+     */
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) { // a single collection may leave garbage that is only reachable from garbage
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * This method plays 1000 waves on one level screen like the game plays them, shooting every flying duck.
+     * The heap still used after a garbage collection must not grow from the early waves to the last one,
+     * and the ducks of the screen must stay within the entity budget.
+     * @throws Exception if the session fails
+     */
+    @Test
+    public void longSessionKeepsItsMemoryFlat() throws Exception {
+        runOnFxThread(() -> {
+            int waves = 1000;
+            int entityBudget = 8;
+            WaveGenerator waveGenerator = new WaveGenerator(entityBudget);
+            Image background = SpriteCache.getImage("background/1.png", 1.0);
+            BackgroundImage backgroundImage = new BackgroundImage(background, BackgroundRepeat.NO_REPEAT, BackgroundRepeat.NO_REPEAT, BackgroundPosition.CENTER, new BackgroundSize(background.getWidth(), background.getHeight(), false, false, false, false));
+            LevelScreen levelScreen = new LevelScreen(new StackPane(), backgroundImage, SpriteCache.getImage("foreground/1.png", 1.0), 1.0, waveGenerator.getWave(1), false);
+            int baselineWave = waves / 10; // the waves are at their largest and the sprites are cached by then
+            long baseline = 0;
+            int maxActive = 0;
+            for (int wave = 1; wave <= waves; wave++) {
+                if (wave > 1) {
+                    levelScreen.loadLevel(waveGenerator.getWave(wave));
+                }
+                LevelSimulation simulation = levelScreen.getSimulation();
+                while (!simulation.isComplete()) {
+                    ArrayList<DuckModel> models = simulation.getModels();
+                    for (int i = 0; i < models.size() && simulation.canShoot(); i++) {
+                        DuckModel model = models.get(i);
+                        if (!model.isShot()) {
+                            simulation.shoot(model.getX() + model.getWidth() / 2, model.getY() + model.getHeight() / 2);
+                        }
+                    }
+                    levelScreen.getGameLoop().tick();
+                    for (Duck duck : levelScreen.getDuckObjects()) {
+                        duck.render();
+                    }
+                    maxActive = Math.max(maxActive, levelScreen.getDuckObjects().size());
+                    assertFalse(simulation.isFailed() || simulation.getTickCount() > 100000, "wave " + wave + " could not be completed");
+                }
+                if (wave == baselineWave) {
+                    baseline = usedHeapAfterGc();
+                }
+            }
+            levelScreen.stopAnimation();
+            long growth = usedHeapAfterGc() - baseline;
+            assertTrue(maxActive <= entityBudget, maxActive + " ducks were in the sky, over the budget of " + entityBudget);
+            assertTrue(growth <= 1024 * 1024, "the session retained " + growth / 1024 + " KB more after " + (waves - baselineWave) + " waves");
+        });
+    }
+}
@@ -0,0 +1,42 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This class tests the simulation of a level.
+ */
+public class LevelSimulationTest {
+    /**
+     * This method checks that a steady-state simulation step does not allocate, so the garbage of a level does not grow
+     * with the number of ducks. A level of 500 flying and falling ducks is stepped until the spatial grid has grown to fit them
+     * and the steps are compiled, then the memory allocated by the measured steps must be zero.
+     */
+    @Test
+    public void steadyStateStepDoesNotAllocate() {
+        assumeTrue(AllocationMeter.getAllocatedBytes() >= 0, "this virtual machine does not count the allocations of a thread");
+        int duckCount = 500;
+        LevelSpec.MotionType[] motionTypes = new LevelSpec.MotionType[duckCount];
+        double[] speedMultipliers = new double[duckCount];
+        for (int i = 0; i < duckCount; i++) {
+            motionTypes[i] = i % 2 == 0 ? LevelSpec.MotionType.DIAGONAL : LevelSpec.MotionType.HORIZONTAL;
+            speedMultipliers[i] = i % 3 == 0 ? 1.5 : 1.0;
+        }
+        LevelSimulation simulation = new LevelSimulation(1.0, 256, 240);
+        simulation.load(new LevelSpec(1, motionTypes, speedMultipliers, LevelSpec.ColorPolicy.CYCLE), 42);
+        for (int i = 0; i < duckCount; i += 4) { // a quarter of the ducks fall, so the falling step is checked too
+            DuckModel model = simulation.getModels().get(i);
+            simulation.shoot(model.getX() + model.getWidth() / 2, model.getY() + model.getHeight() / 2);
+        }
+        for (int i = 0; i < 20000; i++) { // grow the spatial grid and let the compiler optimize the step
+            simulation.tick();
+        }
+        long meterBytes = -AllocationMeter.getAllocatedBytes() + AllocationMeter.getAllocatedBytes(); // the meter itself may allocate
+        long before = AllocationMeter.getAllocatedBytes();
+        for (int i = 0; i < 10000; i++) {
+            simulation.tick();
+        }
+        long allocatedBytes = AllocationMeter.getAllocatedBytes() - before - meterBytes;
+        assertEquals(0, allocatedBytes, "bytes allocated by 10000 steps of " + duckCount + " ducks");
+    }
+}
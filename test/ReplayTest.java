@@ -0,0 +1,91 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * This class tests that a recorded session is read back as it was recorded.
+ */
+public class ReplayTest {
+    @TempDir
+    File directory;
+
+    /**
+     * This method records a session of two levels, with shots far apart in time in the second one.
+     * @return the recorded file
+     */
+    private File record() {
+        ReplayRecorder recorder = new ReplayRecorder(directory, 2.0, 512, 480, 99);
+        recorder.recordLevel(1, 1234567890123L);
+        recorder.recordShot(10, 100.25, 200.5);
+        recorder.recordShot(11, 0.1, 0.2);
+        recorder.recordLevel(2, -5);
+        recorder.recordShot(300000, 511.75, 479.5); // a gap that takes several bytes
+        recorder.close();
+        return recorder.getFile();
+    }
+
+    @Test
+    public void recordedSessionIsReadBack() throws IOException {
+        Replay replay = Replay.read(record());
+        assertEquals(2.0, replay.getScale());
+        assertEquals(512, replay.getSceneWidth());
+        assertEquals(480, replay.getSceneHeight());
+        assertEquals(99, replay.getSeed());
+        ArrayList<Replay.Level> levels = replay.getLevels();
+        assertEquals(2, levels.size());
+        Replay.Level first = levels.get(0);
+        assertEquals(1, first.getLevel());
+        assertEquals(1234567890123L, first.getSeed());
+        assertEquals(2, first.getShotCount());
+        assertEquals(10, first.getTick(0));
+        assertEquals(100.25, first.getX(0));
+        assertEquals(200.5, first.getY(0));
+        assertEquals(11, first.getTick(1));
+        assertEquals(0.1, first.getX(1));
+        assertEquals(0.2, first.getY(1));
+        Replay.Level second = levels.get(1);
+        assertEquals(2, second.getLevel());
+        assertEquals(-5, second.getSeed());
+        assertEquals(1, second.getShotCount());
+        assertEquals(300000, second.getTick(0));
+        assertEquals(511.75, second.getX(0));
+        assertEquals(479.5, second.getY(0));
+    }
+
+    @Test
+    public void cutRecordingKeepsTheCompleteRecords() throws IOException {
+        File file = record();
+        try (RandomAccessFile cut = new RandomAccessFile(file, "rw")) {
+            cut.setLength(cut.length() - 6); // the end and part of the last shot are lost
+        }
+        Replay replay = Replay.read(file);
+        assertEquals(2, replay.getLevels().size());
+        assertEquals(2, replay.getLevels().get(0).getShotCount());
+        assertEquals(0, replay.getLevels().get(1).getShotCount());
+    }
+
+    @Test
+    public void recordingsOfTheSameMomentAreKept() {
+        ReplayRecorder first = new ReplayRecorder(directory, 1.0, 256, 240, 1);
+        ReplayRecorder second = new ReplayRecorder(directory, 1.0, 256, 240, 2);
+        first.close();
+        second.close();
+        assertEquals(2, directory.listFiles().length, first.getFile() + " was overwritten by " + second.getFile());
+    }
+
+    @Test
+    public void otherFilesAreNotReplays() throws IOException {
+        File file = new File(directory, "scores.log");
+        try (RandomAccessFile other = new RandomAccessFile(file, "rw")) {
+            other.writeInt(0x12345678);
+        }
+        assertThrows(IOException.class, () -> Replay.read(file));
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests that the score store returns the best scores of the plays recorded in it. The plays of three days
+ * are recorded, enough for the log to be compacted on the way, and the best scores of all time and of the last day
+ * must be the ones found by sorting all the plays.
+ */
+public class ScoreStoreTest {
+    private static final int PLAYS = 200000;
+    private static final int TOP_COUNT = 10;
+    private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
+    private static final long START_MILLIS = 20000 * DAY_MILLIS; // midnight in UTC, the time zone of the store
+    private static final long STEP_MILLIS = 3 * DAY_MILLIS / PLAYS;
+    private static final long LAST_MILLIS = START_MILLIS + (PLAYS - 1) * STEP_MILLIS;
+    @TempDir
+    File directory;
+    private final ScoreStore.Mode[] modes = ScoreStore.Mode.values();
+    private final long[][] expectedAllTime = new long[modes.length][]; // the best plays of every mode, as sort keys of the score and the sequence
+    private final long[][] expectedLastDay = new long[modes.length][];
+
+    /**
+     * This method records the plays into a new store and sorts them to find the expected best scores.
+     * @return the store, with the plays recorded
+     */
+    private ScoreStore recordPlays() {
+        long[][] allTime = new long[modes.length][PLAYS];
+        long[][] lastDay = new long[modes.length][PLAYS];
+        int[] allTimeCount = new int[modes.length];
+        int[] lastDayCount = new int[modes.length];
+        Random random = new Random(42);
+        ScoreStore store = new ScoreStore(directory, TOP_COUNT, ZoneOffset.UTC);
+        for (int i = 0; i < PLAYS; i++) {
+            int mode = random.nextInt(modes.length);
+            int score = random.nextInt(1000000);
+            long timeMillis = START_MILLIS + i * STEP_MILLIS;
+            store.record(modes[mode], score, i % 50, timeMillis);
+            long key = ((long) (Integer.MAX_VALUE - score) << 32) | i; // the higher score first, the earlier play first
+            allTime[mode][allTimeCount[mode]++] = key;
+            if (timeMillis / DAY_MILLIS == LAST_MILLIS / DAY_MILLIS) {
+                lastDay[mode][lastDayCount[mode]++] = key;
+            }
+        }
+        for (int m = 0; m < modes.length; m++) {
+            Arrays.sort(allTime[m], 0, allTimeCount[m]);
+            Arrays.sort(lastDay[m], 0, lastDayCount[m]);
+            expectedAllTime[m] = Arrays.copyOf(allTime[m], Math.min(TOP_COUNT, allTimeCount[m]));
+            expectedLastDay[m] = Arrays.copyOf(lastDay[m], Math.min(TOP_COUNT, lastDayCount[m]));
+        }
+        return store;
+    }
+
+    /**
+     * This method checks the best scores of the store against the expected ones.
+     * @param store the score store
+     */
+    private void assertBestScores(ScoreStore store) {
+        for (ScoreStore.Mode mode : modes) {
+            assertTable(expectedAllTime[mode.ordinal()], store.getTopAllTime(mode), mode + " of all time");
+            assertTable(expectedLastDay[mode.ordinal()], store.getTopDaily(mode, LAST_MILLIS), mode + " of the day");
+        }
+    }
+
+    /**
+     * This method checks a table of best scores against the expected one.
+     * @param expected the expected best plays, as sort keys of the score and the sequence
+     * @param scores the best scores returned by the store
+     * @param table the name of the table
+     */
+    private static void assertTable(long[] expected, List<ScoreStore.Score> scores, String table) {
+        assertEquals(expected.length, scores.size(), "the size of the best scores " + table);
+        for (int i = 0; i < expected.length; i++) {
+            ScoreStore.Score score = scores.get(i);
+            assertEquals(Integer.MAX_VALUE - (int) (expected[i] >>> 32), score.getScore(), "score " + i + " " + table);
+            assertEquals(expected[i] & 0xFFFFFFFFL, score.getSequence(), "play " + i + " " + table);
+        }
+    }
+
+    @Test
+    public void bestScoresAreTheBestPlays() {
+        ScoreStore store = recordPlays();
+        assertBestScores(store);
+        assertEquals(PLAYS, store.getPlayCount());
+        store.close();
+    }
+
+    @Test
+    public void partlyWrittenRecordIsDropped() throws IOException {
+        recordPlays().close();
+        try (FileChannel log = FileChannel.open(new File(directory, "scores.log").toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            log.write(ByteBuffer.wrap(new byte[13])); // a record that was cut off when it was written
+        }
+        ScoreStore store = new ScoreStore(directory, TOP_COUNT, ZoneOffset.UTC);
+        assertBestScores(store);
+        assertEquals(PLAYS, store.getPlayCount());
+        store.close();
+    }
+
+    @Test
+    public void lostIndexIsRebuiltFromTheLog() throws IOException {
+        recordPlays().close();
+        Files.delete(new File(directory, "scores.idx").toPath());
+        ScoreStore store = new ScoreStore(directory, TOP_COUNT, ZoneOffset.UTC);
+        assertBestScores(store);
+        assertEquals(PLAYS, store.getPlayCount());
+        store.close();
+    }
+}
@@ -0,0 +1,65 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * This class tests the spatial grid of the shot hit test.
+ */
+public class SpatialGridTest {
+    /**
+     * This method returns the targets found by a query as a set.
+     * @param grid the grid
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return the ids of the targets found
+     */
+    private static Set<Integer> query(SpatialGrid grid, double x, double y) {
+        Set<Integer> ids = new HashSet<>();
+        int count = grid.query(x, y);
+        for (int i = 0; i < count; i++) {
+            ids.add(grid.getResult(i));
+        }
+        assertEquals(count, ids.size(), "a target is found once by a query");
+        return ids;
+    }
+
+    @Test
+    public void queryFindsTheTargetsInTheCellOfThePoint() {
+        SpatialGrid grid = new SpatialGrid(100, 100, 10);
+        grid.insert(1, 5, 5, 15, 15); // in four cells
+        grid.insert(2, 12, 2, 18, 8);
+        grid.insert(3, 60, 60, 65, 65);
+        assertEquals(Set.of(1), query(grid, 6, 6));
+        assertEquals(Set.of(1, 2), query(grid, 14, 5));
+        assertEquals(Set.of(1), query(grid, 14, 14));
+        assertEquals(Set.of(3), query(grid, 61, 69));
+        assertEquals(Set.of(), query(grid, 40, 40));
+    }
+
+    @Test
+    public void boundsOutsideTheGridAreClamped() {
+        SpatialGrid grid = new SpatialGrid(100, 100, 10);
+        grid.insert(1, -30, -30, 3, 3);
+        grid.insert(2, 95, 95, 130, 130);
+        assertEquals(Set.of(1), query(grid, 0, 0));
+        assertEquals(Set.of(2), query(grid, 99, 99));
+        assertEquals(Set.of(), query(grid, -5, 50), "a point outside the grid finds nothing");
+        assertEquals(Set.of(), query(grid, 50, 100));
+    }
+
+    @Test
+    public void clearRemovesAllTheTargets() {
+        SpatialGrid grid = new SpatialGrid(100, 100, 10);
+        for (int i = 0; i < 100; i++) { // more entries than the initial arrays hold
+            grid.insert(i, 0, 0, 25, 25);
+        }
+        assertEquals(100, query(grid, 20, 20).size());
+        grid.clear();
+        assertEquals(Set.of(), query(grid, 20, 20));
+        grid.insert(7, 0, 0, 5, 5);
+        assertEquals(Set.of(7), query(grid, 1, 1));
+    }
+}
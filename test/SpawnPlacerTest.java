@@ -0,0 +1,36 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * This class tests the placement of the spawning ducks.
+ */
+public class SpawnPlacerTest {
+    @Test
+    public void ducksAreInsideTheAreaAndApart() {
+        double[] positions = new SpawnPlacer(42).place(20, 10, 20, 210, 120, 15);
+        assertEquals(40, positions.length);
+        for (int i = 0; i < 20; i++) {
+            double x = positions[2 * i];
+            double y = positions[2 * i + 1];
+            assertTrue(x >= 10 && x <= 210 && y >= 20 && y <= 120, "duck " + i + " is outside the area at " + x + ", " + y);
+            for (int j = 0; j < i; j++) {
+                double dx = Math.abs(x - positions[2 * j]);
+                double dy = Math.abs(y - positions[2 * j + 1]);
+                assertTrue(dx >= 15 || dy >= 15, "ducks " + j + " and " + i + " are closer than the separation");
+            }
+        }
+    }
+
+    @Test
+    public void placementOnlyDependsOnTheSeed() {
+        double[] first = new SpawnPlacer(7).place(500, 12.8, 12, 217.6, 96, 34);
+        double[] second = new SpawnPlacer(7).place(500, 12.8, 12, 217.6, 96, 34);
+        assertArrayEquals(first, second);
+        for (int i = 0; i < first.length; i += 2) { // too many ducks to keep them apart, they still stay in the area
+            assertTrue(first[i] >= 12.8 && first[i] <= 217.6 && first[i + 1] >= 12 && first[i + 1] <= 96);
+        }
+    }
+}